@@ -0,0 +1,11 @@
+package com.xperexpo.organizationservice.enums;
+
+public enum BulkEventAction {
+
+	PUBLISH,
+
+	UNPUBLISH,
+
+	DELETE
+
+}
@@ -0,0 +1,20 @@
+package com.xperexpo.organizationservice.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEventResult {
+
+	private Long eventId;
+
+	private boolean success;
+
+	// error code of the rule that rejected the event, null on success
+	private String errorCode;
+}
@@ -0,0 +1,22 @@
+package com.xperexpo.organizationservice.payload;
+
+import java.util.List;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkEventStatusRequest {
+
+	@NotEmpty
+	private List<Long> eventIds;
+
+	@NotBlank
+	private String updateStatus;
+}
@@ -0,0 +1,48 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Permissions of one user in one scope, compiled once when they are loaded.
+ * Bit n is set when the user holds the permission registered with id n in
+ * {@link PermissionRegistry}, so a check is a single bit test.
+ */
+public final class CompiledPermissions {
+
+	private static final CompiledPermissions EMPTY = new CompiledPermissions(new BitSet(), List.of());
+
+	private final BitSet bits;
+
+	private final List<String> permissions;
+
+	private CompiledPermissions(BitSet bits, List<String> permissions) {
+		this.bits = bits;
+		this.permissions = permissions;
+	}
+
+	public static CompiledPermissions empty() {
+		return EMPTY;
+	}
+
+	public static CompiledPermissions of(Collection<Integer> permissionIds, List<String> permissions) {
+		BitSet bits = new BitSet();
+		for (Integer id : permissionIds) {
+			bits.set(id);
+		}
+		return new CompiledPermissions(bits, List.copyOf(permissions));
+	}
+
+	public boolean has(int permissionId) {
+		return permissionId >= 0 && bits.get(permissionId);
+	}
+
+	public boolean isEmpty() {
+		return permissions.isEmpty();
+	}
+
+	public List<String> getPermissions() {
+		return permissions;
+	}
+}
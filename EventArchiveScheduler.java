@@ -0,0 +1,56 @@
+package com.xperexpo.organizationservice.scheduler;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.service.EventArchiveService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+/**
+ * Runs the event archival off peak. One node at a time, a bounded number of
+ * batches per run and a pause between batches, so the archive never competes
+ * with user traffic for long.
+ */
+@Component
+public class EventArchiveScheduler {
+
+	private static final String ARCHIVE_LOCK = "event-archive:lock";
+
+	@Value("${event-archive.max-batches-per-run:100}")
+	private int maxBatchesPerRun;
+
+	@Value("${event-archive.pause-between-batches-ms:500}")
+	private long pauseBetweenBatchesMs;
+
+	@Autowired
+	private EventArchiveService eventArchiveService;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Scheduled(cron = "${event-archive.cron:0 30 3 * * *}")
+	public void archive() {
+		RLock lock = redissonClient.getLock(ARCHIVE_LOCK);
+		if (!lock.tryLock()) {
+			return;
+		}
+		try {
+			for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+				if (eventArchiveService.archiveNextBatch() == 0) {
+					return;
+				}
+				Thread.sleep(pauseBetweenBatchesMs);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			LogUtil.logError(EventArchiveScheduler.class, "event archive failed", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+}
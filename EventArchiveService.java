@@ -0,0 +1,8 @@
+package com.xperexpo.organizationservice.service;
+
+public interface EventArchiveService {
+
+	int archiveNextBatch();
+
+	void restoreEvent(Long eventId, Long organizationId);
+}
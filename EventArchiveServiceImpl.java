@@ -0,0 +1,443 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.EntityType;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventTag;
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+import com.xperexpo.organizationservice.repository.EventRepository;
+import com.xperexpo.organizationservice.service.EventArchiveService;
+import com.xperexpo.organizationservice.utils.EventUrlRegistry;
+import com.xperexpo.organizationservice.utils.LogUtil;
+import com.xperexpo.organizationservice.utils.Utils;
+
+/**
+ * Moves soft deleted events out of the hot tables into {@code event_archive}
+ * and {@code event_archive_row} (see the V20261018_2 migration). Rows are kept
+ * as jsonb and put back with explicit column lists taken from the Hibernate
+ * mapping, so the archive does not depend on column order.
+ * <p>
+ * An event takes its tags and its interval date along, nothing else: each is
+ * copied in one statement per table and deleted in foreign key order. Its
+ * tenant row stays in place for the restore. An event that other tables still
+ * reference cannot be deleted and is parked like any other failure.
+ * <p>
+ * Batches walk the events by id from a checkpoint kept in Redis. An event that
+ * cannot be moved is parked with its attempt count and retried at the start
+ * of every pass until it succeeds or reaches {@value #MAX_ATTEMPTS} attempts,
+ * so the checkpoint only ever passes ids that were moved or parked.
+ */
+@Service
+public class EventArchiveServiceImpl implements EventArchiveService {
+
+	private static final String CHECKPOINT_KEY = "event-archive:checkpoint";
+	private static final String PARKED_KEY = "event-archive:parked";
+	private static final int MAX_ATTEMPTS = 5;
+	private static final String EVENT_ARCHIVE = "event_archive";
+	private static final String EVENT_ARCHIVE_ROW = "event_archive_row";
+	private static final String OWNED_PROPERTY = "eventIntervalDate";
+	private static final String TAG_EVENT_PROPERTY = "event";
+	private static final String IDS = "ids";
+
+	@Value("${event-archive.batch-size:200}")
+	private int batchSize;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Autowired
+	private EventListingIndexer eventListingIndexer;
+
+	@Autowired
+	private EventUrlRegistry eventUrlRegistry;
+
+	private volatile ArchivePlan plan;
+
+	/**
+	 * Archives the next batch after the checkpoint, retrying the parked events
+	 * first when a new pass starts.
+	 *
+	 * @return number of events looked at after the checkpoint, 0 once the pass
+	 *         is complete and the checkpoint has been reset
+	 */
+	@Override
+	public int archiveNextBatch() {
+		ArchivePlan archivePlan = plan();
+		RMap<Long, Integer> parked = redissonClient.getMap(PARKED_KEY);
+		RAtomicLong checkpoint = redissonClient.getAtomicLong(CHECKPOINT_KEY);
+		long afterId = checkpoint.get();
+		if (afterId == 0) {
+			retryParked(archivePlan, parked);
+		}
+
+		Set<Long> parkedIds = parked.readAllKeySet();
+		Map<Long, String> candidates = transactionTemplate
+				.execute(status -> findArchivable(archivePlan, afterId, parkedIds));
+		if (candidates == null || candidates.isEmpty()) {
+			checkpoint.set(0);
+			return 0;
+		}
+
+		List<Long> ids = new ArrayList<>(candidates.keySet());
+		List<Long> archived = new ArrayList<>(ids.size());
+		try {
+			transactionTemplate.executeWithoutResult(status -> moveToArchive(archivePlan, ids));
+			archived.addAll(ids);
+		} catch (RuntimeException e) {
+			LogUtil.logError(EventArchiveServiceImpl.class, "event archive batch failed, retrying one by one", e);
+			for (Long id : ids) {
+				if (tryMoveToArchive(archivePlan, id)) {
+					archived.add(id);
+				} else {
+					parked.put(id, 1);
+				}
+			}
+		}
+
+		archived.forEach(id -> eventUrlRegistry.unregister(candidates.get(id)));
+		checkpoint.set(ids.get(ids.size() - 1));
+		LogUtil.logInfo(EventArchiveServiceImpl.class, "archived " + archived.size() + " of " + ids.size()
+				+ " soft deleted events up to id " + ids.get(ids.size() - 1));
+		return ids.size();
+	}
+
+	/**
+	 * Moves an archived event back into the hot tables and makes it active again
+	 * under its original url, which must still be free. The picture was removed
+	 * from file storage when the event was deleted, so the event comes back
+	 * without one.
+	 */
+	@Override
+	public void restoreEvent(Long eventId, Long organizationId) {
+		if (eventId == null || organizationId == null) {
+			throw new ExpoRuntimeException("XE_16", "event and organization are required");
+		}
+		ArchivePlan archivePlan = plan();
+		String url = transactionTemplate.execute(status -> moveFromArchive(archivePlan, eventId, organizationId));
+		eventUrlRegistry.register(url, eventId);
+		LogUtil.logInfo(EventArchiveServiceImpl.class, "event restored from archive " + eventId);
+	}
+
+	private void retryParked(ArchivePlan archivePlan, RMap<Long, Integer> parked) {
+		for (Map.Entry<Long, Integer> entry : parked.readAllEntrySet()) {
+			if (entry.getValue() >= MAX_ATTEMPTS) {
+				continue;
+			}
+			Long id = entry.getKey();
+			if (tryMoveToArchive(archivePlan, id)) {
+				parked.fastRemove(id);
+				eventUrlRegistry.unregister(
+						transactionTemplate.execute(status -> archivedUrl(archivePlan, id)));
+			} else if (entry.getValue() + 1 >= MAX_ATTEMPTS) {
+				parked.fastPut(id, MAX_ATTEMPTS);
+				LogUtil.logError(EventArchiveServiceImpl.class,
+						"event could not be archived after " + MAX_ATTEMPTS + " attempts, left in place " + id, null);
+			} else {
+				parked.fastPut(id, entry.getValue() + 1);
+			}
+		}
+	}
+
+	private boolean tryMoveToArchive(ArchivePlan archivePlan, Long id) {
+		try {
+			transactionTemplate.executeWithoutResult(status -> moveToArchive(archivePlan, List.of(id)));
+			return true;
+		} catch (RuntimeException e) {
+			LogUtil.logError(EventArchiveServiceImpl.class, "event could not be archived " + id, e);
+			return false;
+		}
+	}
+
+	private Map<Long, String> findArchivable(ArchivePlan p, long afterId, Set<Long> parkedIds) {
+		StringBuilder sql = new StringBuilder("select " + p.eventId + ", " + p.eventUrl + " from " + p.eventTable
+				+ " where " + p.eventActive + " = false and " + p.eventId + " > :afterId");
+		if (!parkedIds.isEmpty()) {
+			sql.append(" and " + p.eventId + " not in (:parked)");
+		}
+		sql.append(" order by " + p.eventId);
+
+		NativeQuery<?> query = nativeQuery(sql.toString(), p.eventTable).setParameter("afterId", afterId);
+		if (!parkedIds.isEmpty()) {
+			query.setParameter("parked", parkedIds);
+		}
+
+		Map<Long, String> candidates = new LinkedHashMap<>();
+		for (Object row : query.setMaxResults(batchSize).getResultList()) {
+			Object[] columns = (Object[]) row;
+			candidates.put(toLong(columns[0]), (String) columns[1]);
+		}
+		return candidates;
+	}
+
+	private void moveToArchive(ArchivePlan p, List<Long> eventIds) {
+		nativeQuery("insert into " + EVENT_ARCHIVE + " (event_id, organization_id, archived_at, row_data) select e."
+				+ p.eventId + ", e." + p.eventOrganization + ", now(), to_jsonb(e) from " + p.eventTable
+				+ " e where e." + p.eventId + " in (:ids)", EVENT_ARCHIVE).setParameter(IDS, eventIds).executeUpdate();
+		for (ArchivedTable table : p.tables) {
+			nativeQuery("insert into " + EVENT_ARCHIVE_ROW + " (event_id, table_name, restore_order, row_data) select "
+					+ table.eventIdExpression() + ", :tableName, :restoreOrder, to_jsonb(t0) from " + table.fromClause()
+					+ " where " + table.eventIdExpression() + " in (:ids)", EVENT_ARCHIVE_ROW)
+							.setParameter("tableName", table.table).setParameter("restoreOrder", table.restoreOrder)
+							.setParameter(IDS, eventIds).executeUpdate();
+		}
+
+		// owned rows are referenced by the event row, their ids are needed after it is gone
+		Map<ArchivedTable, List<Long>> ownedIds = new LinkedHashMap<>();
+		for (ArchivedTable owned : p.ownedTables()) {
+			List<Long> ids = new ArrayList<>();
+			for (Object id : nativeQuery("select " + owned.foreignKey + " from " + p.eventTable + " where "
+					+ p.eventId + " in (:ids) and " + owned.foreignKey + " is not null", p.eventTable)
+							.setParameter(IDS, eventIds).getResultList()) {
+				ids.add(toLong(id));
+			}
+			ownedIds.put(owned, ids);
+		}
+
+		eventListingIndexer.removeAll(eventIds);
+		for (ArchivedTable table : p.referencingTables()) {
+			nativeQuery("delete from " + table.table + " where " + table.foreignKey + " in (:ids)", table.table)
+					.setParameter(IDS, eventIds).executeUpdate();
+		}
+		nativeQuery("delete from " + p.eventTable + " where " + p.eventId + " in (:ids)", p.eventTable)
+				.setParameter(IDS, eventIds).executeUpdate();
+		ownedIds.forEach((owned, ids) -> {
+			if (!ids.isEmpty()) {
+				nativeQuery("delete from " + owned.table + " where " + owned.idColumn + " in (:ids)", owned.table)
+						.setParameter(IDS, ids).executeUpdate();
+			}
+		});
+	}
+
+	private String moveFromArchive(ArchivePlan p, Long eventId, Long organizationId) {
+		List<?> owners = nativeQuery("select organization_id from " + EVENT_ARCHIVE + " where event_id = :id",
+				EVENT_ARCHIVE).setParameter("id", eventId).getResultList();
+		if (owners.isEmpty()) {
+			throw new ExpoRuntimeException("XE_24");
+		}
+		if (!organizationId.equals(toLong(owners.get(0)))) {
+			throw new ExpoRuntimeException("XE_30");
+		}
+
+		String deletedUrl = archivedUrl(p, eventId);
+		String url = Utils.fromDeletedUrl(deletedUrl);
+		if (eventRepository.existsByUrl(url)) {
+			throw new ExpoRuntimeException("XE_5", "domain name is unavailable");
+		}
+
+		// owned rows first, the event row references them, then the event, then the rows referencing it
+		List<?> restoreSteps = nativeQuery("select distinct restore_order, table_name from " + EVENT_ARCHIVE_ROW
+				+ " where event_id = :id order by restore_order", EVENT_ARCHIVE_ROW).setParameter("id", eventId)
+						.getResultList();
+		for (Object step : restoreSteps) {
+			Object[] columns = (Object[]) step;
+			if (((Number) columns[0]).intValue() < 0) {
+				restoreRows(p, (String) columns[1], ((Number) columns[0]).intValue(), eventId);
+			}
+		}
+		String eventColumns = String.join(", ", p.eventColumns);
+		nativeQuery("insert into " + p.eventTable + " (" + eventColumns + ") select " + prefixed("x", p.eventColumns)
+				+ " from " + EVENT_ARCHIVE + " a cross join lateral jsonb_populate_record(null::" + p.eventTable
+				+ ", a.row_data) x where a.event_id = :id", p.eventTable).setParameter("id", eventId).executeUpdate();
+		for (Object step : restoreSteps) {
+			Object[] columns = (Object[]) step;
+			if (((Number) columns[0]).intValue() > 0) {
+				restoreRows(p, (String) columns[1], ((Number) columns[0]).intValue(), eventId);
+			}
+		}
+		nativeQuery("delete from " + EVENT_ARCHIVE + " where event_id = :id", EVENT_ARCHIVE)
+				.setParameter("id", eventId).executeUpdate();
+
+		// the picture file is gone, see restoreEvent
+		entityManager.createQuery("update Event e set e.isActive = true, e.url = :url, e.picture = null where e.id = :id")
+				.setParameter("url", url).setParameter("id", eventId).executeUpdate();
+		eventRepository.findById(eventId).ifPresent(eventListingIndexer::index);
+		return url;
+	}
+
+	private void restoreRows(ArchivePlan p, String tableName, int restoreOrder, Long eventId) {
+		List<String> tableColumns = p.columnsOf(tableName);
+		nativeQuery("insert into " + tableName + " (" + String.join(", ", tableColumns) + ") select "
+				+ prefixed("x", tableColumns) + " from " + EVENT_ARCHIVE_ROW
+				+ " r cross join lateral jsonb_populate_record(null::" + tableName + ", r.row_data) x"
+				+ " where r.event_id = :id and r.table_name = :tableName and r.restore_order = :restoreOrder"
+				+ " order by r.id", tableName).setParameter("id", eventId).setParameter("tableName", tableName)
+						.setParameter("restoreOrder", restoreOrder).executeUpdate();
+	}
+
+	private String archivedUrl(ArchivePlan p, Long eventId) {
+		List<?> urls = nativeQuery("select row_data ->> '" + p.eventUrl + "' from " + EVENT_ARCHIVE
+				+ " where event_id = :id", EVENT_ARCHIVE).setParameter("id", eventId).getResultList();
+		return urls.isEmpty() ? null : (String) urls.get(0);
+	}
+
+	private NativeQuery<?> nativeQuery(String sql, String querySpace) {
+		NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+		// evicts only the regions mapped to this table instead of the whole second level cache
+		query.addSynchronizedQuerySpace(querySpace);
+		return query;
+	}
+
+	private static String prefixed(String alias, List<String> columns) {
+		return columns.stream().map(column -> alias + "." + column).collect(Collectors.joining(", "));
+	}
+
+	private static Long toLong(Object value) {
+		if (value instanceof BigInteger) {
+			return ((BigInteger) value).longValue();
+		}
+		return ((Number) value).longValue();
+	}
+
+	private ArchivePlan plan() {
+		ArchivePlan archivePlan = plan;
+		if (archivePlan == null) {
+			synchronized (this) {
+				if (plan == null) {
+					plan = resolvePlan();
+					LogUtil.logInfo(EventArchiveServiceImpl.class, "event archive covers tables "
+							+ plan.tables.stream().map(table -> table.table).collect(Collectors.toList()));
+				}
+				archivePlan = plan;
+			}
+		}
+		return archivePlan;
+	}
+
+	private ArchivePlan resolvePlan() {
+		SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+				.unwrap(SessionFactoryImplementor.class);
+		AbstractEntityPersister event = (AbstractEntityPersister) sessionFactory.getMetamodel()
+				.entityPersister(Event.class);
+
+		ArchivePlan p = new ArchivePlan();
+		p.eventTable = event.getTableName();
+		p.eventId = event.getIdentifierColumnNames()[0];
+		p.eventActive = event.getPropertyColumnNames("isActive")[0];
+		p.eventUrl = event.getPropertyColumnNames("url")[0];
+		p.eventOrganization = event.getPropertyColumnNames("organization")[0];
+		p.eventColumns = columnsOf(event);
+
+		AbstractEntityPersister intervalDate = (AbstractEntityPersister) sessionFactory.getMetamodel()
+				.entityPersister(((EntityType) event.getPropertyType(OWNED_PROPERTY)).getAssociatedEntityName());
+		ArchivedTable owned = new ArchivedTable(intervalDate.getTableName(), columnsOf(intervalDate), -1,
+				event.getPropertyColumnNames(OWNED_PROPERTY)[0], p.eventId);
+		owned.idColumn = intervalDate.getIdentifierColumnNames()[0];
+		owned.ownedBy = p.eventTable;
+		p.tables.add(owned);
+
+		AbstractEntityPersister tag = (AbstractEntityPersister) sessionFactory.getMetamodel()
+				.entityPersister(EventTag.class);
+		ArchivedTable tags = new ArchivedTable(tag.getTableName(), columnsOf(tag), 1,
+				tag.getPropertyColumnNames(TAG_EVENT_PROPERTY)[0], p.eventId);
+		p.tables.add(tags);
+		return p;
+	}
+
+	private static List<String> columnsOf(AbstractEntityPersister persister) {
+		Set<String> columns = new LinkedHashSet<>(List.of(persister.getIdentifierColumnNames()));
+		for (String property : persister.getPropertyNames()) {
+			if (persister.getTableName().equals(persister.getPropertyTableName(property))) {
+				// formulas have no column
+				for (String column : persister.getPropertyColumnNames(property)) {
+					if (column != null) {
+						columns.add(column);
+					}
+				}
+			}
+		}
+		return new ArrayList<>(columns);
+	}
+
+	private static class ArchivePlan {
+
+		private String eventTable;
+		private String eventId;
+		private String eventActive;
+		private String eventUrl;
+		private String eventOrganization;
+		private List<String> eventColumns;
+		private final List<ArchivedTable> tables = new ArrayList<>();
+
+		List<ArchivedTable> ownedTables() {
+			return tables.stream().filter(table -> table.restoreOrder < 0).collect(Collectors.toList());
+		}
+
+		List<String> columnsOf(String tableName) {
+			return tables.stream().filter(table -> table.table.equals(tableName)).findFirst()
+					.orElseThrow(() -> new ExpoRuntimeException("XE_16", "archived table is not mapped " + tableName))
+					.columns;
+		}
+
+		List<ArchivedTable> referencingTables() {
+			return tables.stream().filter(table -> table.restoreOrder > 0).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * A table archived with the event: either a table referencing the event
+	 * ({@code t0}), or a row the event owns and references itself, joined to the
+	 * event table as {@code t1}.
+	 */
+	private static class ArchivedTable {
+
+		private final String table;
+		private final List<String> columns;
+		// owned rows are negative, rows referencing the event positive
+		private final int restoreOrder;
+		private final String foreignKey;
+		private final String eventIdColumn;
+		// owned rows only: their id column and the event table that references them
+		private String idColumn;
+		private String ownedBy;
+
+		ArchivedTable(String table, List<String> columns, int restoreOrder, String foreignKey,
+				String eventIdColumn) {
+			this.table = table;
+			this.columns = columns;
+			this.restoreOrder = restoreOrder;
+			this.foreignKey = foreignKey;
+			this.eventIdColumn = eventIdColumn;
+		}
+
+		String fromClause() {
+			if (ownedBy != null) {
+				return table + " t0 join " + ownedBy + " t1 on t1." + foreignKey + " = t0." + idColumn;
+			}
+			return table + " t0";
+		}
+
+		String eventIdExpression() {
+			return ownedBy != null ? "t1." + eventIdColumn : "t0." + foreignKey;
+		}
+	}
+}
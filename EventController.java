@@ -1,11 +1,17 @@
 package com.xperexpo.organizationservice.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -21,18 +27,32 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xperexpo.organizationservice.enums.BulkEventAction;
 import com.xperexpo.organizationservice.enums.StatusCode;
 import com.xperexpo.organizationservice.enums.UpdateEventStatus;
 import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+import com.xperexpo.organizationservice.payload.BulkEventResult;
+import com.xperexpo.organizationservice.payload.BulkEventStatusRequest;
 import com.xperexpo.organizationservice.payload.EventDTO;
+import com.xperexpo.organizationservice.payload.EventImportReport;
+import com.xperexpo.organizationservice.payload.EventPageDTO;
 import com.xperexpo.organizationservice.payload.EventQueryRequest;
 import com.xperexpo.organizationservice.payload.EventSaveOrUpdateRequest;
+import com.xperexpo.organizationservice.payload.EventStreamContext;
+import com.xperexpo.organizationservice.payload.ExportJobDTO;
 import com.xperexpo.organizationservice.payload.SingleEventDTO;
 import com.xperexpo.organizationservice.payload.UpdateStatusEvent;
 import com.xperexpo.organizationservice.payload.base.BaseResponse;
+import com.xperexpo.organizationservice.service.EventArchiveService;
+import com.xperexpo.organizationservice.service.EventExportService;
+import com.xperexpo.organizationservice.service.EventImportService;
 import com.xperexpo.organizationservice.service.EventService;
+import com.xperexpo.organizationservice.service.ExportJobService;
 import com.xperexpo.organizationservice.service.impl.EventServiceImpl;
+import com.xperexpo.organizationservice.utils.EventOrganizationResolver;
 import com.xperexpo.organizationservice.utils.LogUtil;
 import com.xperexpo.organizationservice.utils.TenancyUtil;
 
@@ -41,12 +61,34 @@ import com.xperexpo.organizationservice.utils.TenancyUtil;
 @RequestMapping("/events")
 public class EventController {
 
+	private static final int MAX_BULK_EVENT_IDS = 5000;
+	private static final int MAX_BULK_STATUS_EVENT_IDS = 1000;
+	private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
 	@Autowired
 	private EventService eventService;
 
 	@Autowired
 	private TenancyUtil tenancyUtil;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EventOrganizationResolver eventOrganizationResolver;
+
+	@Autowired
+	private EventExportService eventExportService;
+
+	@Autowired
+	private ExportJobService exportJobService;
+
+	@Autowired
+	private EventImportService eventImportService;
+
+	@Autowired
+	private EventArchiveService eventArchiveService;
+
 	@GetMapping
 	public ResponseEntity<BaseResponse> getEvent() {
 		String userId = TenancyUtil.findUserIdForToken();
@@ -58,7 +100,7 @@ public class EventController {
 	}
 
 	@PostMapping
-	@PreAuthorize("hasAuthority('add_event')")
+	@PreAuthorize("hasPermission(null, 'add_event')")
 	public ResponseEntity<BaseResponse> createEvent(@RequestHeader("i18nextLng") String i18n,
 			@RequestPart(value = "inbag") @Valid EventSaveOrUpdateRequest request,
 			@RequestPart(value = "picture") MultipartFile picture) {
@@ -69,6 +111,16 @@ public class EventController {
 		return new ResponseEntity<>(BaseResponse.success(), HttpStatus.OK);
 	}
 
+	@PostMapping("/import")
+	@PreAuthorize("hasPermission(null, 'add_event')")
+	public ResponseEntity<BaseResponse> importEvents(@RequestHeader("i18nextLng") String i18n,
+			@RequestPart(value = "file") MultipartFile file) {
+		LogUtil.logInfo(EventController.class, "importEvents i18nextLng: " + i18n);
+
+		EventImportReport report = eventImportService.importEvents(file, tenancyUtil.getOrganizationId());
+		return new ResponseEntity<>(BaseResponse.success(report), HttpStatus.OK);
+	}
+
 	@GetMapping("/url-check")
 	public ResponseEntity<BaseResponse> urlCheck(@RequestParam(value = "url") String url,
 			@RequestParam(value = "eventId", required = false) Long eventId) {
@@ -80,24 +132,116 @@ public class EventController {
 	}
 
 	@PostMapping("/all")
-	@PreAuthorize("hasAuthority('list_event')")
+	@PreAuthorize("hasPermission(null, 'list_event')")
 	public ResponseEntity<BaseResponse> getEvents(@RequestHeader("i18nextLng") String i18n,
-			@RequestBody @Valid EventQueryRequest request) {
+			@RequestBody @Valid EventQueryRequest request,
+			@RequestParam(value = "size", required = false) Integer size,
+			@RequestParam(value = "cursor", required = false) String cursor) {
 		LogUtil.logInfo(EventController.class, "getEvents i18nextLng: " + i18n);
 
 		String userId = TenancyUtil.findUserIdForToken();
 
-		List<EventDTO> events = eventService.queryEvents(i18n, request, userId, tenancyUtil.getOrganizationId());
         BaseResponse baseResponse = new BaseResponse();
         baseResponse.setSuccess(true);
         baseResponse.setStatusCode(StatusCode.OK);
         baseResponse.setMessage(StatusCode.OK.name());
-        baseResponse.setData(events);
+		if (size == null && cursor == null) {
+			List<EventDTO> events = eventService.queryEvents(i18n, request, userId, tenancyUtil.getOrganizationId());
+			baseResponse.setData(events);
+		} else {
+			EventPageDTO page = eventService.queryEventsPage(i18n, request, userId, tenancyUtil.getOrganizationId(),
+					size, cursor);
+			baseResponse.setData(page);
+		}
         return new ResponseEntity<>(baseResponse, HttpStatus.OK);
     }
 
+	@PostMapping(value = "/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<StreamingResponseBody> streamEvents(@RequestHeader("i18nextLng") String i18n,
+			@RequestBody @Valid EventQueryRequest request) {
+		LogUtil.logInfo(EventController.class, "streamEvents i18nextLng: " + i18n);
+
+		// resolved on the request thread, the body is written asynchronously
+		String userId = TenancyUtil.findUserIdForToken();
+		EventStreamContext context = eventService.prepareEventStream(request, userId,
+				tenancyUtil.getOrganizationId());
+
+		StreamingResponseBody body = outputStream -> eventService.streamEvents(context,
+				chunk -> writeNdJson(outputStream, chunk));
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	@PostMapping("/all/export")
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<StreamingResponseBody> exportEvents(@RequestHeader("i18nextLng") String i18n,
+			@RequestBody @Valid EventQueryRequest request) {
+		LogUtil.logInfo(EventController.class, "exportEvents i18nextLng: " + i18n);
+
+		// resolved on the request thread, the body is written asynchronously
+		String userId = TenancyUtil.findUserIdForToken();
+		EventStreamContext context = eventService.prepareEventStream(request, userId,
+				tenancyUtil.getOrganizationId());
+
+		StreamingResponseBody body = outputStream -> eventExportService.exportEvents(context, outputStream);
+
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(XLSX_CONTENT_TYPE))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"events.xlsx\"").body(body);
+	}
+
+	@PostMapping("/all/export/jobs")
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<BaseResponse> submitExportJob(@RequestHeader("i18nextLng") String i18n,
+			@RequestBody @Valid EventQueryRequest request) {
+		String userId = TenancyUtil.findUserIdForToken();
+
+		ExportJobDTO job = exportJobService.submitEventExport(i18n, request, userId, tenancyUtil.getOrganizationId());
+		return new ResponseEntity<>(BaseResponse.success(job), HttpStatus.ACCEPTED);
+	}
+
+	@GetMapping("/export/jobs/{jobId}")
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<BaseResponse> getExportJob(@PathVariable String jobId) {
+		ExportJobDTO job = exportJobService.getJob(jobId, tenancyUtil.getOrganizationId());
+		return new ResponseEntity<>(BaseResponse.success(job), HttpStatus.OK);
+	}
+
+	// a Resource body lets Spring answer Range requests, so large downloads can resume
+	@GetMapping("/export/jobs/{jobId}/file")
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<Resource> downloadExportJob(@PathVariable String jobId) {
+		Resource file = exportJobService.getJobFile(jobId, tenancyUtil.getOrganizationId());
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(XLSX_CONTENT_TYPE))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"events.xlsx\"")
+				.header(HttpHeaders.ACCEPT_RANGES, "bytes").body(file);
+	}
+
+	private void writeNdJson(OutputStream outputStream, List<EventDTO> events) {
+		try {
+			for (EventDTO event : events) {
+				outputStream.write(objectMapper.writeValueAsBytes(event));
+				outputStream.write('\n');
+			}
+			outputStream.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@GetMapping("/search")
+	@PreAuthorize("hasPermission(null, 'list_event')")
+	public ResponseEntity<BaseResponse> searchEvents(@RequestHeader("i18nextLng") String i18n,
+			@RequestParam(value = "q") String search, @RequestParam(value = "size", required = false) Integer size) {
+		String userId = TenancyUtil.findUserIdForToken();
+
+		List<EventDTO> events = eventService.searchEvents(i18n, search, userId, tenancyUtil.getOrganizationId(),
+				size);
+		return new ResponseEntity<>(BaseResponse.success(events), HttpStatus.OK);
+	}
+
 	@PutMapping
-	@PreAuthorize("hasAuthority('edit_event')")
+	@PreAuthorize("hasPermission(null, 'edit_event')")
 	public ResponseEntity<BaseResponse> updateEvent(@RequestHeader("i18nextLng") String i18n,
 			@RequestPart(value = "inbag") @Valid EventSaveOrUpdateRequest request,
 			@RequestPart(value = "picture", required = false) MultipartFile picture) {
@@ -109,11 +253,11 @@ public class EventController {
 	}
 
 	@PutMapping("/status")
-	@PreAuthorize("hasAuthority('publish-status_event')")
+	@PreAuthorize("hasPermission(null, 'publish-status_event')")
 	public ResponseEntity<BaseResponse> statusEvent(@RequestBody @Valid UpdateStatusEvent updateStatusEvent) {
 		String userId = TenancyUtil.findUserIdForToken();
 
-		UpdateEventStatus status = UpdateEventStatus.valueOf(updateStatusEvent.getUpdateStatus());
+		UpdateEventStatus status = parseUpdateStatus(updateStatusEvent.getUpdateStatus());
 		LogUtil.logInfo(EventServiceImpl.class, "12");
 
 		if (status == null) {
@@ -137,7 +281,7 @@ public class EventController {
 	}
 
 	@DeleteMapping
-	@PreAuthorize("hasAuthority('delete_event')")
+	@PreAuthorize("hasPermission(null, 'delete_event')")
 	public ResponseEntity<BaseResponse> deleteEvent() {
 		String userId = TenancyUtil.findUserIdForToken();
 		eventService.deleteEvent(tenancyUtil.getEventId(), userId);
@@ -145,10 +289,73 @@ public class EventController {
 		return new ResponseEntity<>(BaseResponse.success(), HttpStatus.OK);
 	}
 
+	@PutMapping("/bulk/status")
+	@PreAuthorize("hasPermission(null, 'publish-status_event')")
+	public ResponseEntity<BaseResponse> bulkStatusEvents(@RequestBody @Valid BulkEventStatusRequest request) {
+		String userId = TenancyUtil.findUserIdForToken();
+		checkBulkSize(request.getEventIds());
+
+		UpdateEventStatus status = parseUpdateStatus(request.getUpdateStatus());
+		BulkEventAction action;
+		if (UpdateEventStatus.RELEASED.equals(status)) {
+			action = BulkEventAction.PUBLISH;
+		} else if (UpdateEventStatus.UNPUBLISHED.equals(status)) {
+			action = BulkEventAction.UNPUBLISH;
+		} else {
+			throw new ExpoRuntimeException("XE_31", "event status not valid for this action " + status.getCode());
+		}
+
+		List<BulkEventResult> results = eventService.bulkUpdateEvents(request.getEventIds(), action, userId);
+		return new ResponseEntity<>(BaseResponse.success(results), HttpStatus.OK);
+	}
+
+	@PostMapping("/bulk/delete")
+	@PreAuthorize("hasPermission(null, 'delete_event')")
+	public ResponseEntity<BaseResponse> bulkDeleteEvents(@RequestBody List<Long> eventIds) {
+		String userId = TenancyUtil.findUserIdForToken();
+		checkBulkSize(eventIds);
+
+		List<BulkEventResult> results = eventService.bulkUpdateEvents(eventIds, BulkEventAction.DELETE, userId);
+		return new ResponseEntity<>(BaseResponse.success(results), HttpStatus.OK);
+	}
+
+	// unknown values are a client error, valueOf alone would surface as a 500
+	private UpdateEventStatus parseUpdateStatus(String updateStatus) {
+		try {
+			return UpdateEventStatus.valueOf(updateStatus);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new ExpoRuntimeException("XE_31", "event status not valid for this action " + updateStatus);
+		}
+	}
+
+	private void checkBulkSize(List<Long> eventIds) {
+		if (eventIds.size() > MAX_BULK_STATUS_EVENT_IDS) {
+			throw new ExpoRuntimeException("XE_16", "too many event ids");
+		}
+	}
+
+	@PostMapping("/archive/{id}/restore")
+	@PreAuthorize("hasPermission(null, 'delete_event')")
+	public ResponseEntity<BaseResponse> restoreArchivedEvent(@PathVariable Long id) {
+		eventArchiveService.restoreEvent(id, tenancyUtil.getOrganizationId());
+
+		return new ResponseEntity<>(BaseResponse.success(), HttpStatus.OK);
+	}
+
 	@GetMapping("/organization/{id}")
 	public ResponseEntity<BaseResponse> findByOrganizationIdForEvent(@PathVariable Long id) {
 
-		BaseResponse response = BaseResponse.success(eventService.findActiveEventById(id).getOrganization().getId());
+		BaseResponse response = BaseResponse.success(eventOrganizationResolver.resolve(id));
+		return new ResponseEntity<>(response, HttpStatus.OK);
+	}
+
+	@PostMapping("/organization")
+	public ResponseEntity<BaseResponse> findByOrganizationIdsForEvents(@RequestBody List<Long> eventIds) {
+		if (eventIds.size() > MAX_BULK_EVENT_IDS) {
+			throw new ExpoRuntimeException("XE_16", "too many event ids");
+		}
+
+		BaseResponse response = BaseResponse.success(eventOrganizationResolver.resolveAll(eventIds));
 		return new ResponseEntity<>(response, HttpStatus.OK);
 	}
 
@@ -0,0 +1,66 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventTag;
+import com.xperexpo.organizationservice.repository.EventTagRepository;
+import com.xperexpo.organizationservice.service.AttendeeGroupService;
+import com.xperexpo.organizationservice.service.BoothGroupService;
+import com.xperexpo.organizationservice.service.SessionService;
+import com.xperexpo.organizationservice.service.SponsorService;
+
+/**
+ * Writes the default rows of a new event (tags, sponsor, session, attendee and
+ * booth groups). The rows the services persist wait in the persistence context
+ * and the seeder flushes them once at the end, where
+ * {@link com.xperexpo.organizationservice.config.HibernateBatchConfig} orders
+ * the inserts by table so that rows with sequence generated ids share JDBC
+ * batches; rows of identity mapped entities are still inserted one by one when
+ * they are persisted. Must run inside the transaction that created the event.
+ */
+@Component
+public class EventDefaultDataSeeder {
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EventTagRepository eventTagRepository;
+
+	@Autowired
+	private SponsorService sponsorService;
+
+	@Autowired
+	private SessionService sessionService;
+
+	@Autowired
+	private AttendeeGroupService attendeeGroupService;
+
+	@Autowired
+	private BoothGroupService boothGroupService;
+
+	public void seed(Event event, List<String> tagNames) {
+		List<EventTag> tags = new ArrayList<>();
+		for (String t : tagNames) {
+			EventTag tag = new EventTag();
+			tag.setTag(t);
+			tag.setEvent(event);
+			tags.add(tag);
+		}
+
+		eventTagRepository.saveAll(tags);
+		sponsorService.fillDefaultSponsorGroups(event);
+		sessionService.fillDefaultSessionGroups(event);
+		attendeeGroupService.fillDefaultAttendeeGroups(event);
+		boothGroupService.createDefaultBoothGroup(event);
+		// the rows of every service go out in one flush, ordered and batched by table
+		entityManager.flush();
+	}
+}
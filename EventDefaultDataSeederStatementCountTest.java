@@ -0,0 +1,122 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventIntervalDate;
+import com.xperexpo.organizationservice.entity.EventTenant;
+import com.xperexpo.organizationservice.entity.Organization;
+import com.xperexpo.organizationservice.entity.OrganizationOwner;
+import com.xperexpo.organizationservice.enums.EventStatus;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+/**
+ * Counts the statements sent for the default data of one new event with
+ * Hibernate statistics, once with JDBC batching switched off for the session,
+ * as every row was written before, and once with the configured batching.
+ */
+@SpringBootTest(properties = { "second-level-cache.statistics-enabled=true" })
+class EventDefaultDataSeederStatementCountTest {
+
+	private static final int TAG_COUNT = 20;
+	private static final Integer NO_BATCHING = 1;
+
+	@Autowired
+	private EventDefaultDataSeeder eventDefaultDataSeeder;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	void seedingBatchesTheDefaultRows() {
+		long before = seedStatementCount(NO_BATCHING);
+		long after = seedStatementCount(null);
+
+		LogUtil.logInfo(EventDefaultDataSeederStatementCountTest.class,
+				"default data statements per new event, before: " + before + " after: " + after);
+		assertTrue(after < before);
+	}
+
+	private long seedStatementCount(Integer jdbcBatchSize) {
+		List<String> tags = new ArrayList<>(TAG_COUNT);
+		for (int i = 0; i < TAG_COUNT; i++) {
+			tags.add("tag " + i);
+		}
+		return transactionTemplate.execute(status -> {
+			Event event = saveEvent();
+			entityManager.flush();
+
+			// null falls back to the batch size of the session factory
+			entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+			statistics.clear();
+			eventDefaultDataSeeder.seed(event, tags);
+			long statementCount = statistics.getPrepareStatementCount();
+
+			status.setRollbackOnly();
+			return statementCount;
+		});
+	}
+
+	private Event saveEvent() {
+		OrganizationOwner owner = new OrganizationOwner();
+		owner.setUserId("seeder-statement-count-owner");
+		entityManager.persist(owner);
+
+		Organization organization = new Organization();
+		organization.setOrganizationOwner(owner);
+		entityManager.persist(organization);
+
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		EventIntervalDate eventIntervalDate = new EventIntervalDate();
+		eventIntervalDate.setGeneralStartDate(start);
+		eventIntervalDate.setGeneralEndDate(start.plusDays(1));
+		eventIntervalDate.setActiveStartDate(start);
+		eventIntervalDate.setActiveEndDate(start.plusDays(1));
+		entityManager.persist(eventIntervalDate);
+
+		EventTenant eventTenant = new EventTenant();
+		eventTenant.setActive(false);
+		entityManager.persist(eventTenant);
+
+		Event event = new Event();
+		event.setNameMainLang("seeder statement count");
+		event.setUrl("seeder-statement-count-" + System.nanoTime());
+		event.setTimezone("UTC");
+		event.setActive(true);
+		event.setEventStatus(EventStatus.DRAFT);
+		event.setOrganization(organization);
+		event.setEventIntervalDate(eventIntervalDate);
+		event.setEventTenant(eventTenant);
+		entityManager.persist(event);
+		return event;
+	}
+}
@@ -0,0 +1,13 @@
+package com.xperexpo.organizationservice.service;
+
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+import com.xperexpo.organizationservice.payload.EventStreamContext;
+
+public interface EventExportService {
+
+	void exportEvents(EventStreamContext context, OutputStream outputStream);
+
+	void exportEvents(EventStreamContext context, OutputStream outputStream, LongConsumer progressListener);
+}
@@ -0,0 +1,166 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+import com.xperexpo.organizationservice.payload.EventDTO;
+import com.xperexpo.organizationservice.payload.EventStreamContext;
+import com.xperexpo.organizationservice.service.EventExportService;
+import com.xperexpo.organizationservice.service.EventService;
+import com.xperexpo.organizationservice.utils.ExcelUtils;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+@Service
+public class EventExportServiceImpl implements EventExportService {
+
+	private static final String SHEET_NAME = "Events";
+	private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<Map<String, Object>>() {
+	};
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Writes the event list as xlsx. Rows are pulled from the event stream in
+	 * chunks and flushed by the streaming workbook, so memory does not grow with
+	 * the number of events. Column widths come from the first
+	 * {@link ExcelUtils#COLUMN_WIDTH_SAMPLE_ROWS} rows. The context comes from
+	 * {@link EventService#prepareEventStream}; the export may run on any thread.
+	 */
+	@Override
+	public void exportEvents(EventStreamContext context, OutputStream outputStream) {
+		exportEvents(context, outputStream, rows -> {
+		});
+	}
+
+	/**
+	 * Same as {@link #exportEvents(EventStreamContext, OutputStream)}, reporting
+	 * the number of rows written after every chunk.
+	 */
+	@Override
+	public void exportEvents(EventStreamContext context, OutputStream outputStream, LongConsumer progressListener) {
+		SXSSFWorkbook workbook = ExcelUtils.createStreamingWorkbook();
+		try {
+			ExportSheet exportSheet = new ExportSheet(workbook);
+			eventService.streamEvents(context, chunk -> {
+				exportSheet.writeRows(chunk);
+				progressListener.accept(exportSheet.rowCount());
+			});
+			exportSheet.finish();
+			workbook.write(outputStream);
+			outputStream.flush();
+		} catch (IOException e) {
+			LogUtil.logError(EventExportServiceImpl.class,
+					"exportEvents failed, organization: " + context.getOrganizationId(), e);
+			throw new UncheckedIOException(e);
+		} finally {
+			workbook.dispose();
+			closeQuietly(workbook);
+		}
+	}
+
+	private void closeQuietly(SXSSFWorkbook workbook) {
+		try {
+			workbook.close();
+		} catch (IOException e) {
+			LogUtil.logError(EventExportServiceImpl.class, "workbook close failed", e);
+		}
+	}
+
+	private String toCellValue(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (value instanceof Map || value instanceof Collection) {
+			try {
+				return objectMapper.writeValueAsString(value);
+			} catch (JsonProcessingException e) {
+				throw new ExpoRuntimeException("XE_16", "event export column could not be written");
+			}
+		}
+		return value.toString();
+	}
+
+	private class ExportSheet {
+
+		private final SXSSFWorkbook workbook;
+		private final CellStyle style;
+		private Sheet sheet;
+		private List<String> columns;
+		private int[] sampledLengths;
+		private int rowIndex = 1;
+
+		ExportSheet(SXSSFWorkbook workbook) {
+			this.workbook = workbook;
+			this.style = ExcelUtils.createCenteredStyle(workbook);
+		}
+
+		void writeRows(List<EventDTO> events) {
+			for (EventDTO event : events) {
+				Map<String, Object> values = objectMapper.convertValue(event, ROW_TYPE);
+				if (sheet == null) {
+					initSheet(values);
+				}
+
+				List<String> cellValues = new ArrayList<>(columns.size());
+				for (String column : columns) {
+					cellValues.add(toCellValue(values.get(column)));
+				}
+
+				Row row = sheet.createRow(rowIndex);
+				for (int col = 0; col < cellValues.size(); col++) {
+					Cell cell = row.createCell(col);
+					cell.setCellStyle(style);
+					cell.setCellValue(cellValues.get(col));
+				}
+
+				if (rowIndex <= ExcelUtils.COLUMN_WIDTH_SAMPLE_ROWS) {
+					ExcelUtils.sampleColumnWidths(sampledLengths, cellValues);
+				}
+				rowIndex++;
+			}
+		}
+
+		long rowCount() {
+			return rowIndex - 1L;
+		}
+
+		void finish() {
+			if (sheet == null) {
+				workbook.createSheet(SHEET_NAME);
+				return;
+			}
+			ExcelUtils.applySampledColumnWidths(sheet, sampledLengths);
+		}
+
+		private void initSheet(Map<String, Object> firstRow) {
+			columns = new ArrayList<>(firstRow.keySet());
+			sampledLengths = new int[columns.size()];
+			// widths are applied from the samples, so the header does not autosize
+			sheet = ExcelUtils.initExcelWorkBook(workbook, SHEET_NAME, columns, Collections.emptySet(), 0);
+			ExcelUtils.sampleColumnWidths(sampledLengths, columns);
+		}
+	}
+}
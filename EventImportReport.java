@@ -0,0 +1,23 @@
+package com.xperexpo.organizationservice.payload;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class EventImportReport {
+
+	private int totalRows;
+
+	private int importedRows;
+
+	private int failedRows;
+
+	// capped, failedRows keeps the full count
+	private List<EventImportRowError> errors = new ArrayList<>();
+}
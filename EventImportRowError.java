@@ -0,0 +1,17 @@
+package com.xperexpo.organizationservice.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventImportRowError {
+
+	private int rowNumber;
+
+	private String message;
+}
@@ -0,0 +1,10 @@
+package com.xperexpo.organizationservice.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.xperexpo.organizationservice.payload.EventImportReport;
+
+public interface EventImportService {
+
+	EventImportReport importEvents(MultipartFile file, Long organizationId);
+}
@@ -0,0 +1,162 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+import com.xperexpo.organizationservice.payload.EventImportReport;
+import com.xperexpo.organizationservice.payload.EventImportRowError;
+import com.xperexpo.organizationservice.payload.EventSaveOrUpdateRequest;
+import com.xperexpo.organizationservice.service.EventImportService;
+import com.xperexpo.organizationservice.service.EventService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+import com.xperexpo.organizationservice.utils.StreamingExcelReader;
+
+/**
+ * Creates events from an xlsx upload. Rows are read one at a time, validated
+ * with the rules of a single create and written in chunks, so a sheet of
+ * thousands of events needs the memory of one chunk.
+ */
+@Service
+public class EventImportServiceImpl implements EventImportService {
+
+	private static final int CHUNK_SIZE = 100;
+	private static final int MAX_REPORTED_ERRORS = 1000;
+	private static final String TAGS_COLUMN = "tags";
+	private static final String TAG_SEPARATOR = ",";
+	private static final String XLSX_EXTENSION = ".xlsx";
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Override
+	public EventImportReport importEvents(MultipartFile file, Long organizationId) {
+		long startTime = System.nanoTime();
+		Path tempFile = null;
+		try {
+			// OPCPackage reads a file lazily, an input stream would be buffered whole
+			tempFile = Files.createTempFile("event-import-", XLSX_EXTENSION);
+			file.transferTo(tempFile);
+
+			ImportRun run = new ImportRun(organizationId);
+			StreamingExcelReader.readFirstSheet(tempFile.toFile(), run::accept);
+			run.flush();
+
+			LogUtil.logInfo(EventImportServiceImpl.class, "importEvents organization " + organizationId + " rows: "
+					+ run.report.getTotalRows() + ", imported: " + run.report.getImportedRows() + ", took "
+					+ (System.nanoTime() - startTime) / 1_000_000 + " ms");
+			return run.report;
+		} catch (IOException e) {
+			LogUtil.logError(EventImportServiceImpl.class, "importEvents upload could not be stored", e);
+			throw new ExpoRuntimeException("XE_16", "import file could not be read");
+		} finally {
+			deleteQuietly(tempFile);
+		}
+	}
+
+	private void deleteQuietly(Path path) {
+		if (path == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			LogUtil.logError(EventImportServiceImpl.class, "import file could not be deleted " + path, e);
+		}
+	}
+
+	private EventSaveOrUpdateRequest toRequest(Map<String, String> values) {
+		Map<String, Object> properties = new HashMap<>(values);
+		String tags = values.get(TAGS_COLUMN);
+		properties.put(TAGS_COLUMN, tags == null ? new ArrayList<>()
+				: Arrays.stream(tags.split(TAG_SEPARATOR)).map(String::trim).filter(tag -> !tag.isEmpty())
+						.collect(Collectors.toList()));
+		return objectMapper.convertValue(properties, EventSaveOrUpdateRequest.class);
+	}
+
+	private class ImportRun {
+
+		private final Long organizationId;
+		private final EventImportReport report = new EventImportReport();
+		// urls of the file, two rows may not claim the same one before either is saved
+		private final Set<String> urls = new HashSet<>();
+		private final List<EventSaveOrUpdateRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+		private final List<Integer> chunkRowNumbers = new ArrayList<>(CHUNK_SIZE);
+
+		ImportRun(Long organizationId) {
+			this.organizationId = organizationId;
+		}
+
+		void accept(int rowNumber, Map<String, String> values) {
+			report.setTotalRows(report.getTotalRows() + 1);
+			try {
+				EventSaveOrUpdateRequest request = toRequest(values);
+				validate(request);
+				chunk.add(request);
+				chunkRowNumbers.add(rowNumber);
+			} catch (ExpoRuntimeException | IllegalArgumentException | DateTimeException e) {
+				fail(rowNumber, e.getMessage());
+				return;
+			}
+			if (chunk.size() == CHUNK_SIZE) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (chunk.isEmpty()) {
+				return;
+			}
+			Map<Integer, String> failures = eventService.createEvents(chunk, organizationId);
+			for (Map.Entry<Integer, String> failure : failures.entrySet()) {
+				fail(chunkRowNumbers.get(failure.getKey()), failure.getValue());
+			}
+			report.setImportedRows(report.getImportedRows() + chunk.size() - failures.size());
+			chunk.clear();
+			chunkRowNumbers.clear();
+		}
+
+		private void validate(EventSaveOrUpdateRequest request) {
+			Set<ConstraintViolation<EventSaveOrUpdateRequest>> violations = validator.validate(request);
+			if (!violations.isEmpty()) {
+				ConstraintViolation<EventSaveOrUpdateRequest> violation = violations.iterator().next();
+				throw new ExpoRuntimeException("XE_16", violation.getPropertyPath() + " " + violation.getMessage());
+			}
+			eventService.validateNewEvent(request);
+			if (!urls.add(request.getUrl())) {
+				throw new ExpoRuntimeException("XE_5", "domain name is unavailable");
+			}
+		}
+
+		private void fail(int rowNumber, String message) {
+			report.setFailedRows(report.getFailedRows() + 1);
+			if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+				report.getErrors().add(new EventImportRowError(rowNumber, message));
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.xperexpo.organizationservice.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapsId;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+
+import com.xperexpo.organizationservice.enums.EventTimeStatus;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Denormalized listing data of an event, maintained on every event write so
+ * that list queries can filter on precomputed columns. {@code searchKey} is the
+ * event name folded by {@code Utils.normalizeSearchText}; substring search on
+ * it is served by the pg_trgm GIN index {@code ix_event_listing_search_key_trgm}
+ * created by the migrations, JPA index annotations cannot declare it.
+ * {@code timeStatus} is kept current by {@code EventTimeStatusScheduler}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "event_listing", indexes = {
+		@Index(name = "ix_event_listing_organization_id_time_status", columnList = "organization_id, time_status"),
+		@Index(name = "ix_event_listing_general_start_date", columnList = "general_start_date"),
+		@Index(name = "ix_event_listing_general_end_date", columnList = "general_end_date") })
+public class EventListing {
+
+	@Id
+	@Column(name = "event_id")
+	private Long eventId;
+
+	@MapsId
+	@OneToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "event_id")
+	private Event event;
+
+	@Column(name = "organization_id", nullable = false)
+	private Long organizationId;
+
+	@Column(name = "search_key", nullable = false, length = 1000)
+	private String searchKey;
+
+	@Column(name = "general_start_date")
+	private LocalDateTime generalStartDate;
+
+	@Column(name = "general_end_date")
+	private LocalDateTime generalEndDate;
+
+	// null while the dates of the event are not known
+	@Enumerated(EnumType.STRING)
+	@Column(name = "time_status", length = 16)
+	private EventTimeStatus timeStatus;
+}
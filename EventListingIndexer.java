@@ -0,0 +1,120 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventIntervalDate;
+import com.xperexpo.organizationservice.entity.EventListing;
+import com.xperexpo.organizationservice.repository.EventListingRepository;
+import com.xperexpo.organizationservice.scheduler.EventTimeStatusScheduler;
+import com.xperexpo.organizationservice.utils.LogUtil;
+import com.xperexpo.organizationservice.utils.Utils;
+
+/**
+ * Keeps {@link EventListing} in step with the events table, including the
+ * materialized time status. Event writes call {@link #index(Event)} inside
+ * their own transaction; events written before the listing existed are
+ * backfilled once at startup.
+ */
+@Component
+public class EventListingIndexer {
+
+	private static final String BACKFILL_LOCK = "event-listing:backfill-lock";
+	private static final int BACKFILL_PAGE_SIZE = 500;
+	private static final String UNINDEXED_EVENTS_QUERY = "select e from Event e where e.id > :lastId and e.isActive = true"
+			+ " and not exists (select l.eventId from EventListing l where l.eventId = e.id) order by e.id";
+
+	@Autowired
+	private EventListingRepository eventListingRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private EventTimeStatusScheduler eventTimeStatusScheduler;
+
+	public EventListing index(Event event) {
+		EventListing listing = eventListingRepository.findById(event.getId()).orElseGet(EventListing::new);
+		listing.setEvent(event);
+		listing.setOrganizationId(event.getOrganization().getId());
+		listing.setSearchKey(searchKeyOf(event));
+
+		EventIntervalDate eventIntervalDate = event.getEventIntervalDate();
+		LocalDateTime generalStartDate = eventIntervalDate == null ? null : eventIntervalDate.getGeneralStartDate();
+		LocalDateTime generalEndDate = eventIntervalDate == null ? null : eventIntervalDate.getGeneralEndDate();
+		listing.setGeneralStartDate(generalStartDate);
+		listing.setGeneralEndDate(generalEndDate);
+		listing.setTimeStatus(
+				EventTimeStatusScheduler.timeStatusAt(generalStartDate, generalEndDate, LocalDateTime.now()));
+
+		EventListing savedListing = eventListingRepository.save(listing);
+		eventTimeStatusScheduler.register(event.getId(), generalStartDate, generalEndDate);
+		return savedListing;
+	}
+
+	public void remove(Long eventId) {
+		eventListingRepository.findById(eventId).ifPresent(eventListingRepository::delete);
+	}
+
+	public void removeAll(Collection<Long> eventIds) {
+		eventListingRepository.deleteAllByIdInBatch(eventIds);
+	}
+
+	// both names, users search in either language
+	static String searchKeyOf(Event event) {
+		String name = Utils.isNullOrEmpty(event.getNameSecondLang()) ? event.getNameMainLang()
+				: event.getNameMainLang() + " " + event.getNameSecondLang();
+		return Utils.normalizeSearchText(name);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		RLock lock = redissonClient.getLock(BACKFILL_LOCK);
+		if (!lock.tryLock()) {
+			return;
+		}
+		try {
+			long indexed = 0;
+			Long lastId = 0L;
+			while (true) {
+				Long from = lastId;
+				List<Event> events = transactionTemplate.execute(status -> {
+					List<Event> page = entityManager.createQuery(UNINDEXED_EVENTS_QUERY, Event.class)
+							.setParameter("lastId", from).setMaxResults(BACKFILL_PAGE_SIZE).getResultList();
+					page.forEach(this::index);
+					return page;
+				});
+				if (events == null || events.isEmpty()) {
+					break;
+				}
+				indexed += events.size();
+				lastId = events.get(events.size() - 1).getId();
+			}
+			if (indexed > 0) {
+				LogUtil.logInfo(EventListingIndexer.class, "event listing backfilled " + indexed + " events");
+			}
+		} catch (Exception e) {
+			LogUtil.logError(EventListingIndexer.class, "event listing backfill failed", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package com.xperexpo.organizationservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.xperexpo.organizationservice.entity.EventListing;
+
+@Repository
+public interface EventListingRepository extends JpaRepository<EventListing, Long> {
+
+}
@@ -0,0 +1,115 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+
+/**
+ * Resolves the organization of active events for tenancy routing. Only the two
+ * ids are read from the database and the answer is cached in memory; the
+ * mapping never changes while the event is active, so an entry only has to be
+ * dropped when the event is deleted. Deletes evict after their commit; a
+ * resolve that read the row before that commit does not cache its answer,
+ * otherwise the deleted event would resolve until the entry expires.
+ */
+@Component
+public class EventOrganizationResolver {
+
+	private static final String INVALIDATION_TOPIC = "event-organization-invalidation";
+	private static final int CACHE_SIZE = 100_000;
+	private static final long CACHE_TTL_MINUTES = 30;
+	private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+	private static final String ORGANIZATION_ID_QUERY = "select e.id, e.organization.id from Event e"
+			+ " where e.id in :eventIds and e.isActive = true";
+
+	private final LocalTtlCache<Long, Long> organizationIdByEventId = new LocalTtlCache<>(CACHE_SIZE,
+			CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	// bumped by every eviction, local or from another node
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private RTopic invalidationTopic;
+
+	@PostConstruct
+	public void subscribeInvalidation() {
+		invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC);
+		invalidationTopic.addListener(Long.class, (channel, eventId) -> invalidate(eventId));
+	}
+
+	public Long resolve(Long eventId) {
+		Long organizationId = resolveAll(List.of(eventId)).get(eventId);
+		if (organizationId == null) {
+			throw new ExpoRuntimeException("XE_24");
+		}
+		return organizationId;
+	}
+
+	/**
+	 * Returns the organization id of every active event among the given ids.
+	 * Unknown or deleted events are left out of the map.
+	 */
+	public Map<Long, Long> resolveAll(Collection<Long> eventIds) {
+		Map<Long, Long> resolved = new LinkedHashMap<>();
+		List<Long> missing = new ArrayList<>();
+		for (Long eventId : new LinkedHashSet<>(eventIds)) {
+			Long organizationId = organizationIdByEventId.get(eventId);
+			if (organizationId != null) {
+				resolved.put(eventId, organizationId);
+			} else {
+				missing.add(eventId);
+			}
+		}
+
+		long generation = invalidations.get();
+		for (int from = 0; from < missing.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+			List<Long> chunk = missing.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, missing.size()));
+			List<Object[]> rows = entityManager.createQuery(ORGANIZATION_ID_QUERY, Object[].class)
+					.setParameter("eventIds", chunk).getResultList();
+			for (Object[] row : rows) {
+				Long eventId = (Long) row[0];
+				Long organizationId = (Long) row[1];
+				organizationIdByEventId.put(eventId, organizationId);
+				// an eviction since the read may be for this row, its answer is not kept
+				if (invalidations.get() != generation) {
+					organizationIdByEventId.invalidate(eventId);
+				}
+				resolved.put(eventId, organizationId);
+			}
+		}
+		return resolved;
+	}
+
+	/**
+	 * Drops the entry on every node. Called after the delete has committed.
+	 */
+	public void evict(Long eventId) {
+		invalidate(eventId);
+		invalidationTopic.publish(eventId);
+	}
+
+	private void invalidate(Long eventId) {
+		invalidations.incrementAndGet();
+		organizationIdByEventId.invalidate(eventId);
+	}
+}
@@ -0,0 +1,20 @@
+package com.xperexpo.organizationservice.payload;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDTO {
+
+	private List<EventDTO> events;
+
+	// opaque, null when the last page has been returned
+	private String nextCursor;
+}
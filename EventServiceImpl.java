@@ -1,29 +1,52 @@
 package com.xperexpo.organizationservice.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import javax.transaction.Transactional;
 
 import org.apache.commons.io.FilenameUtils;
+import org.hibernate.LockMode;
 import org.hibernate.cache.spi.support.AbstractReadWriteAccess.Item;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.xperexpo.organizationservice.client.AuthExternalService;
@@ -31,56 +54,109 @@ import com.xperexpo.organizationservice.client.FileExternalService;
 import com.xperexpo.organizationservice.converter.EventConverter;
 import com.xperexpo.organizationservice.entity.Event;
 import com.xperexpo.organizationservice.entity.EventIntervalDate;
+import com.xperexpo.organizationservice.entity.EventListing;
 import com.xperexpo.organizationservice.entity.EventTag;
 import com.xperexpo.organizationservice.entity.EventTenant;
 import com.xperexpo.organizationservice.entity.query.RoleType;
 import com.xperexpo.organizationservice.enums.BucketFolderName;
+import com.xperexpo.organizationservice.enums.BulkEventAction;
 import com.xperexpo.organizationservice.enums.EventColumn;
-import com.xperexpo.organizationservice.enums.EventLocationType;
 import com.xperexpo.organizationservice.enums.EventStatus;
 import com.xperexpo.organizationservice.enums.EventTimeStatus;
+import com.xperexpo.organizationservice.enums.PermissionViewType;
 import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
-import com.xperexpo.organizationservice.payload.ActiveEventEditPayload;
-import com.xperexpo.organizationservice.payload.ChangePublishEventMailPayload;
+import com.xperexpo.organizationservice.payload.BulkEventResult;
 import com.xperexpo.organizationservice.payload.EventDTO;
+import com.xperexpo.organizationservice.payload.EventPageDTO;
 import com.xperexpo.organizationservice.payload.EventPermissionPayload;
 import com.xperexpo.organizationservice.payload.EventQueryRequest;
 import com.xperexpo.organizationservice.payload.EventSaveOrUpdateRequest;
+import com.xperexpo.organizationservice.payload.EventStreamContext;
 import com.xperexpo.organizationservice.payload.FileNameResponse;
 import com.xperexpo.organizationservice.payload.SingleEventDTO;
-import com.xperexpo.organizationservice.payload.UserBaseFieldResponse;
 import com.xperexpo.organizationservice.payload.UserIdAndPermissionList;
+import com.xperexpo.organizationservice.payload.UserRoleParameterPayload;
 import com.xperexpo.organizationservice.repository.EventIntervalDateRepository;
 import com.xperexpo.organizationservice.repository.EventRepository;
 import com.xperexpo.organizationservice.repository.EventTagRepository;
 import com.xperexpo.organizationservice.repository.EventTenantRepository;
-import com.xperexpo.organizationservice.service.AttendeeGroupService;
+import com.xperexpo.organizationservice.scheduler.EventTimeStatusScheduler;
 import com.xperexpo.organizationservice.service.AuthService;
-import com.xperexpo.organizationservice.service.BoothGroupService;
 import com.xperexpo.organizationservice.service.EventService;
-import com.xperexpo.organizationservice.service.MailSendService;
+import com.xperexpo.organizationservice.service.MailOutboxService;
 import com.xperexpo.organizationservice.service.OrganizationService;
 import com.xperexpo.organizationservice.service.OrganizationTeamMemberService;
-import com.xperexpo.organizationservice.service.SessionService;
-import com.xperexpo.organizationservice.service.SponsorService;
-import com.xperexpo.organizationservice.service.UserService;
+import com.xperexpo.organizationservice.utils.EventOrganizationResolver;
+import com.xperexpo.organizationservice.utils.EventUrlRegistry;
 import com.xperexpo.organizationservice.utils.LogUtil;
 import com.xperexpo.organizationservice.utils.RegexpUtils;
 import com.xperexpo.organizationservice.utils.SystemParameterUtils;
+import com.xperexpo.organizationservice.utils.TenancyUtil;
 import com.xperexpo.organizationservice.utils.TimeUtils;
-import com.xperexpo.organizationservice.utils.TimeZoneRedisUtils;
-import com.xperexpo.organizationservice.utils.UserLanguageUtils;
+import com.xperexpo.organizationservice.utils.UserContextProvider;
+import com.xperexpo.organizationservice.utils.UserPermissionUtils;
 import com.xperexpo.organizationservice.utils.Utils;
 
 @Service
 public class EventServiceImpl implements EventService {
 
-	private static final String GENERAL_START_DATE = "generalStartDate";
-	private static final String GENERAL_END_DATE = "generalEndDate";
 	private static final String ORGANIZATION = "organization";
 	private static final String EVENT_INTERNAL_DATE = "eventIntervalDate";
-	private static final Locale TURKISH = Locale.forLanguageTag("tr");
+	private static final Pattern URL_PATTERN = Pattern.compile(RegexpUtils.URL_REGEXP);
 	private static final String IS_ACTIVE = "isActive";
+	private static final String EVENT_TENANT = "eventTenant";
+	private static final String ORGANIZATION_OWNER = "organizationOwner";
+	private static final String ORGANIZATION_ID = "organizationId";
+	private static final String EVENT_ID = "eventId";
+	private static final String SEARCH_KEY = "searchKey";
+	private static final String TIME_STATUS = "timeStatus";
+	private static final char LIKE_ESCAPE = '!';
+	private static final String RELEVANCE_SEARCH_QUERY = "select e from EventListing l join l.event e"
+			+ " where l.organizationId = :organizationId and e.isActive = true and l.searchKey like :contains escape '!'"
+			+ " order by case when l.searchKey like :prefix escape '!' then 0"
+			+ " when l.searchKey like :wordPrefix escape '!' then 1 else 2 end, length(l.searchKey), e.id";
+	// the time status rules of EventTimeStatusScheduler.timeStatusAt, evaluated on the dates of the event itself
+	private static final String PUBLISHABLE_DATES = " and exists (select d.id from EventIntervalDate d"
+			+ " where d.id = e.eventIntervalDate.id and d.generalStartDate is not null and d.generalEndDate is not null"
+			+ " and (d.generalStartDate > :now or d.generalEndDate > :now))";
+	private static final String NOT_COMPLETED_DATES = " and not exists (select d.id from EventIntervalDate d"
+			+ " where d.id = e.eventIntervalDate.id and d.generalStartDate <= :now and d.generalEndDate <= :now)";
+	private static final String OWNED_BY_USER = " and exists (select o.id from Organization o"
+			+ " where o.id = e.organization.id and o.organizationOwner.userId = :userId)";
+	// owner, status and dates are checked in the same statement as the change
+	private static final String CONDITIONAL_PUBLISH_UPDATE = "update Event e set e.eventStatus = :status"
+			+ " where e.id = :id and e.isActive = true and e.eventStatus in :allowedStatuses" + OWNED_BY_USER
+			+ PUBLISHABLE_DATES;
+	private static final String CONDITIONAL_UNPUBLISH_UPDATE = "update Event e set e.eventStatus = :status"
+			+ " where e.id = :id and e.isActive = true and e.eventStatus not in :excludedStatuses" + OWNED_BY_USER
+			+ NOT_COMPLETED_DATES;
+	private static final String EVENT_TENANT_STATUS_UPDATE = "update EventTenant t set t.isActive = :active"
+			+ " where t.id = (select e.eventTenant.id from Event e where e.id = :eventId)";
+	private static final String EVENT_BY_INTERVAL_DATE_QUERY = "select e from Event e"
+			+ " where e.eventIntervalDate.id = :eventIntervalDateId and e.isActive = true";
+	private static final String BULK_TARGET_ALIAS = "e";
+	// ordered by id so that concurrent bulk calls lock shared events in the same order
+	private static final String BULK_TARGET_QUERY = "select e from Event e join fetch e.organization o"
+			+ " join fetch o.organizationOwner join fetch e.eventTenant left join fetch e.eventIntervalDate"
+			+ " where e.id in :eventIds order by e.id";
+	private static final String BULK_PUBLISH_UPDATE = "update Event e set e.eventStatus = :status"
+			+ " where e.id in :eventIds and e.isActive = true and e.eventStatus in :allowedStatuses"
+			+ PUBLISHABLE_DATES;
+	private static final String BULK_UNPUBLISH_UPDATE = "update Event e set e.eventStatus = :status"
+			+ " where e.id in :eventIds and e.isActive = true and e.eventStatus not in :excludedStatuses"
+			+ NOT_COMPLETED_DATES;
+	private static final List<EventStatus> PUBLISHABLE_STATUSES = List.of(EventStatus.DRAFT, EventStatus.UNPUBLISHED);
+	private static final String BULK_TENANT_UPDATE = "update EventTenant t set t.isActive = :active where t.id in :tenantIds";
+	// same url as Utils.toDeletedUrl, built in the statement
+	private static final String BULK_DELETE_UPDATE = "update Event e set e.isActive = false,"
+			+ " e.url = concat(e.url, :marker, str(e.id)) where e.id in :eventIds";
+	private static final String ID = "id";
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final int MAX_PAGE_SIZE = 500;
+	private static final int STREAM_CHUNK_SIZE = 100;
+	private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+	private static final List<String> DEFAULT_EVENT_ROLE_PARAMETERS = List.of(SystemParameterUtils.EVENT_MANAGER_ID,
+			SystemParameterUtils.BOOTH_ADMIN_ID, SystemParameterUtils.BOOTH_TEAM_MEMBER_ID);
 
 	@Autowired
 	private EventRepository eventRepository;
@@ -104,87 +180,233 @@ public class EventServiceImpl implements EventService {
 	private EntityManager entityManager;
 
 	@Autowired
-	private EventConverter eventConverter;
+	private TransactionTemplate transactionTemplate;
 
 	@Autowired
-	private MailSendService mailSendService;
+	private EventConverter eventConverter;
 
 	@Autowired
-	private UserService userService;
+	private EventOrganizationResolver eventOrganizationResolver;
 
 	@Autowired
-	private BoothGroupService boothGroupService;
+	private EventUrlRegistry eventUrlRegistry;
 
 	@Autowired
-	private SponsorService sponsorService;
+	private MailOutboxService mailOutboxService;
 
 	@Autowired
-	private TimeZoneRedisUtils timeZoneRedisUtils;
+	private EventDefaultDataSeeder eventDefaultDataSeeder;
 
 	@Autowired
-	private AuthService authService;
+	private EventListingIndexer eventListingIndexer;
 
 	@Autowired
-	private UserLanguageUtils userLanguageUtils;
+	private UserContextProvider userContextProvider;
 
 	@Autowired
-	private AuthExternalService authExternalService;
+	private AuthService authService;
 
 	@Autowired
-	private SessionService sessionService;
+	private UserPermissionUtils userPermissionUtils;
 
 	@Autowired
-	private AttendeeGroupService attendeeGroupService;
+	private AuthExternalService authExternalService;
 
 	@Autowired
 	private OrganizationTeamMemberService organizationTeamMemberService;
 
-	@Transactional
+	/**
+	 * Creates the event as a saga so that no database connection is held during
+	 * the remote calls: the picture is uploaded first, the event and its default
+	 * data are written in a short local transaction, then the default roles are
+	 * created in auth-service. A failing step undoes the steps before it.
+	 */
 	@Override
 	public void createEvent(EventSaveOrUpdateRequest request, Long organizationId, MultipartFile picture) {
 
 		eventPictureCheck(picture);
 
-		urlCheck(request.getUrl(), null);
+		validateUrl(request.getUrl());
+		checkUrlAvailability(request.getUrl(), null);
+
+		long stageStart = System.nanoTime();
+		String pictureName = uploadLogo(picture);
+		logSagaStage("uploadLogo", stageStart);
+
+		Event savedEvent;
+		try {
+			stageStart = System.nanoTime();
+			savedEvent = transactionTemplate.execute(status -> saveNewEvent(request, organizationId, pictureName));
+			logSagaStage("saveNewEvent", stageStart);
+		} catch (RuntimeException e) {
+			compensateUploadLogo(pictureName);
+			throw e;
+		}
+
+		try {
+			stageStart = System.nanoTime();
+			authService.saveDefaultRoles(RoleType.EVENT, DEFAULT_EVENT_ROLE_PARAMETERS, savedEvent.getId());
+			logSagaStage("saveDefaultRoles", stageStart);
+		} catch (RuntimeException e) {
+			compensateDefaultRoles(savedEvent.getId());
+			compensateSaveNewEvent(savedEvent.getId());
+			compensateUploadLogo(pictureName);
+			throw e;
+		} finally {
+			evictRolePermissions(TenancyUtil.findUserIdForToken(), savedEvent.getId());
+		}
+		eventUrlRegistry.register(savedEvent.getUrl(), savedEvent.getId());
+		LogUtil.logInfo(EventServiceImpl.class, "event successfully saved " + savedEvent.getId());
+	}
+
+	/**
+	 * Runs the checks of {@link #createEvent} that do not need the picture, for
+	 * events that arrive without one (spreadsheet import).
+	 */
+	@Override
+	public void validateNewEvent(EventSaveOrUpdateRequest request) {
+		validateUrl(request.getUrl());
+		checkUrlAvailability(request.getUrl(), null);
+		validateTimezone(request.getTimezone());
+		validateDateOrder(request, request.getTimezone());
+	}
+
+	/**
+	 * Creates already validated events without a picture. The chunk is written in
+	 * one transaction so the inserts share JDBC batches; if it fails, every event
+	 * is retried on its own so that one bad row does not reject its neighbours.
+	 * Default roles are then created per event with the same compensation as
+	 * {@link #createEvent}.
+	 *
+	 * @return failure message by index in the request list, empty when all were
+	 *         created
+	 */
+	@Override
+	public Map<Integer, String> createEvents(List<EventSaveOrUpdateRequest> requests, Long organizationId) {
+		Map<Integer, String> failures = new HashMap<>();
+		List<Event> savedEvents;
+		try {
+			savedEvents = transactionTemplate.execute(status -> saveNewEvents(requests, organizationId));
+		} catch (RuntimeException e) {
+			LogUtil.logError(EventServiceImpl.class, "createEvents chunk failed, retrying one by one", e);
+			savedEvents = new ArrayList<>(requests.size());
+			for (int i = 0; i < requests.size(); i++) {
+				List<EventSaveOrUpdateRequest> single = List.of(requests.get(i));
+				try {
+					savedEvents.add(transactionTemplate.execute(status -> saveNewEvents(single, organizationId)).get(0));
+				} catch (RuntimeException singleFailure) {
+					savedEvents.add(null);
+					failures.put(i, singleFailure.getMessage());
+				}
+			}
+		}
 
+		for (int i = 0; i < savedEvents.size(); i++) {
+			Event savedEvent = savedEvents.get(i);
+			if (savedEvent == null) {
+				continue;
+			}
+			try {
+				authService.saveDefaultRoles(RoleType.EVENT, DEFAULT_EVENT_ROLE_PARAMETERS, savedEvent.getId());
+				eventUrlRegistry.register(savedEvent.getUrl(), savedEvent.getId());
+			} catch (RuntimeException e) {
+				compensateDefaultRoles(savedEvent.getId());
+				compensateSaveNewEvent(savedEvent.getId());
+				failures.put(i, e.getMessage());
+			}
+		}
+		if (!savedEvents.isEmpty()) {
+			// roles were granted or rolled back, no single user to evict here
+			userPermissionUtils.evictAllNearCachedPermissions();
+		}
+		return failures;
+	}
+
+	private List<Event> saveNewEvents(List<EventSaveOrUpdateRequest> requests, Long organizationId) {
+		List<Event> savedEvents = new ArrayList<>(requests.size());
+		for (EventSaveOrUpdateRequest request : requests) {
+			savedEvents.add(saveNewEvent(request, organizationId, null));
+		}
+		// keeps the persistence context from growing when the request holds it open
+		entityManager.flush();
+		entityManager.clear();
+		return savedEvents;
+	}
+
+	private Event saveNewEvent(EventSaveOrUpdateRequest request, Long organizationId, String pictureName) {
 		Event event = new Event();
 		eventConverter.toEntity(request, event, false);
 		event.setEventStatus(EventStatus.DRAFT);
 		event.setOrganization(organizationService.findOrganization(organizationId));
-		event.setPicture(uploadLogo(picture));
+		event.setPicture(pictureName);
 		event.setEventTenant(createEventTenant());
 
 		Event savedEvent = eventRepository.save(event);
+		eventListingIndexer.index(savedEvent);
 
-		List<EventTag> tags = new ArrayList<>();
-		for (String t : request.getTags()) {
-			EventTag tag = new EventTag();
-			tag.setTag(t);
-			tag.setEvent(event);
-			tags.add(tag);
+		eventDefaultDataSeeder.seed(savedEvent, request.getTags());
+		return savedEvent;
+	}
+
+	private void compensateUploadLogo(String pictureName) {
+		try {
+			fileExternalService.removeImage(BucketFolderName.EVENT_PICTURE.getCode(), pictureName);
+		} catch (Exception e) {
+			LogUtil.logError(EventServiceImpl.class, "createEvent compensation removeImage failed " + pictureName, e);
 		}
+	}
 
-		eventTagRepository.saveAll(tags);
-		sponsorService.fillDefaultSponsorGroups(event);
-		sessionService.fillDefaultSessionGroups(event);
-		attendeeGroupService.fillDefaultAttendeeGroups(event);
+	private void compensateDefaultRoles(Long eventId) {
+		try {
+			UserRoleParameterPayload payload = new UserRoleParameterPayload();
+			payload.setRoleType(RoleType.EVENT);
+			payload.setRoleParameterList(DEFAULT_EVENT_ROLE_PARAMETERS);
+			payload.setTypeId(eventId);
+			authExternalService.rollbackUserRolesIfExist(payload);
+		} catch (Exception e) {
+			LogUtil.logError(EventServiceImpl.class, "createEvent compensation rollbackUserRoles failed " + eventId, e);
+		}
+	}
 
-		boothGroupService.createDefaultBoothGroup(event);
-		List<String> roleParameterList = List.of(SystemParameterUtils.EVENT_MANAGER_ID,
-				SystemParameterUtils.BOOTH_ADMIN_ID, SystemParameterUtils.BOOTH_TEAM_MEMBER_ID);
-		authService.saveDefaultRoles(RoleType.EVENT, roleParameterList, savedEvent.getId());
-		LogUtil.logInfo(EventServiceImpl.class, "event successfully saved " + event.getId());
+	/**
+	 * Default roles were granted or rolled back for the event. The entry of the
+	 * creator for the event scope is dropped everywhere, and the near caches are
+	 * cleared for the other users the roles may have been given to.
+	 */
+	private void evictRolePermissions(String userId, Long eventId) {
+		try {
+			if (userId != null) {
+				userPermissionUtils.evictUserPermission(userId, eventId, PermissionViewType.EVENT);
+			}
+			userPermissionUtils.evictAllNearCachedPermissions();
+		} catch (Exception e) {
+			LogUtil.logError(EventServiceImpl.class, "permission cache eviction failed " + eventId, e);
+		}
 	}
 
-	private EventTenant createEventTenant() {
-		EventTenant eventTenant = new EventTenant();
-		eventTenant.setActive(false);
-		return eventTenantRepository.save(eventTenant);
+	private void compensateSaveNewEvent(Long eventId) {
+		try {
+			// same soft delete as deleteEvent, frees the url for a retry
+			transactionTemplate.executeWithoutResult(status -> eventRepository.findById(eventId).ifPresent(event -> {
+				event.setActive(false);
+				event.setUrl(Utils.toDeletedUrl(event.getUrl(), event.getId()));
+				eventRepository.save(event);
+				eventListingIndexer.remove(eventId);
+			}));
+			eventOrganizationResolver.evict(eventId);
+		} catch (Exception e) {
+			LogUtil.logError(EventServiceImpl.class, "createEvent compensation delete event failed " + eventId, e);
+		}
+	}
 
+	private void logSagaStage(String stage, long stageStart) {
+		LogUtil.logInfo(EventServiceImpl.class, "createEvent stage " + stage + " took "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStart) + " ms");
 	}
 
-	private EventTenant updateStatusEventTenant(EventTenant eventTenant, boolean status) {
-		eventTenant.setActive(status);
+	private EventTenant createEventTenant() {
+		EventTenant eventTenant = new EventTenant();
+		eventTenant.setActive(false);
 		return eventTenantRepository.save(eventTenant);
 
 	}
@@ -201,7 +423,10 @@ public class EventServiceImpl implements EventService {
 			event = getOwnEvent(eventId, userId);
 		}
 		else {
-			event = eventRepository.findById(eventId).get();
+			event = entityManager.find(Event.class, eventId, Map.of(QueryHints.HINT_LOADGRAPH, eventFetchGraph()));
+			if (event == null) {
+				throw new ExpoRuntimeException("XE_24");
+			}
 		}
 		
 		return eventConverter.toSingleDTO(event);
@@ -214,13 +439,15 @@ public class EventServiceImpl implements EventService {
 			String i18n) {
 
 		Event event = getOwnEvent(eventId, userId);
+		String previousUrl = event.getUrl();
 
 		Event updateEvent = controlEventStatusAndProcessUpdateEvent(request, event);
 
 		if (picture != null)
 			eventPictureCheck(picture);
 
-		urlCheck(request.getUrl(), eventId);
+		validateUrl(request.getUrl());
+		checkUrlAvailability(request.getUrl(), eventId);
 
 		// picture
 		if (picture != null) {
@@ -228,14 +455,18 @@ public class EventServiceImpl implements EventService {
 			updateEvent.setPicture(uploadLogo(picture));
 		}
 		eventRepository.save(updateEvent);
+		eventListingIndexer.index(updateEvent);
+		if (!previousUrl.equals(updateEvent.getUrl())) {
+			afterCommit(() -> {
+				eventUrlRegistry.unregister(previousUrl);
+				eventUrlRegistry.register(updateEvent.getUrl(), eventId);
+			});
+		}
 
 		updateTags(eventId, request.getTags(), updateEvent);
 
 		if (EventStatus.RELEASED.equals(event.getEventStatus())) {
-			ActiveEventEditPayload activeEventEditPayload = new ActiveEventEditPayload();
-			activeEventEditPayload.setLanguage(userLanguageUtils.getLanguageCode(userId));
-			activeEventEditPayload.setEmail(event.getOrganization().getEmail());
-			mailSendService.activeEventEdit(activeEventEditPayload);
+			mailOutboxService.enqueueActiveEventEdit(eventId, userId);
 		}
 
 		LogUtil.logInfo(EventServiceImpl.class, "event successfully updated " + eventId);
@@ -243,21 +474,9 @@ public class EventServiceImpl implements EventService {
 	}
 
 	private Event controlEventStatusAndProcessUpdateEvent(EventSaveOrUpdateRequest request, Event event) {
-		EventTimeStatus eventTimeStatus = eventConverter.getEventTimeStatus(event);
+		EventTimeStatus eventTimeStatus = timeStatusOf(event, LocalDateTime.now());
 
-		if (Boolean.TRUE.equals(request.getIsKnownDate()) && !Utils.isNullOrEmpty(request.getGeneralStartDate())
-				&& !Utils.isNullOrEmpty(request.getGeneralEndDate())
-				&& !Utils.isNullOrEmpty(request.getActiveStartDate())
-				&& !Utils.isNullOrEmpty(request.getActiveEndDate())) {
-			LocalDateTime activeStartDate = TimeUtils.parseDateTime(request.getActiveStartDate(), event.getTimezone());
-			LocalDateTime generalStartDate = TimeUtils.parseDateTime(request.getGeneralStartDate(),
-					event.getTimezone());
-			LocalDateTime generalEndDate = TimeUtils.parseDateTime(request.getGeneralEndDate(), event.getTimezone());
-			LocalDateTime activeEndDate = TimeUtils.parseDateTime(request.getActiveEndDate(), event.getTimezone());
-			if (generalStartDate.isAfter(generalEndDate) || activeStartDate.isAfter(activeEndDate)) {
-				throw new ExpoRuntimeException("XE_32");
-			}
-		}
+		validateDateOrder(request, event.getTimezone());
 
 		if (EventStatus.CANCELLED.equals(event.getEventStatus())) {
 			throw new ExpoRuntimeException("XE_31");
@@ -296,6 +515,32 @@ public class EventServiceImpl implements EventService {
 		return event;
 	}
 
+	private void validateTimezone(String timezone) {
+		if (Utils.isNullOrEmpty(timezone)) {
+			throw new ExpoRuntimeException("XE_16", "timezone is required");
+		}
+		try {
+			ZoneId.of(timezone);
+		} catch (DateTimeException e) {
+			throw new ExpoRuntimeException("XE_16", "invalid timezone " + timezone);
+		}
+	}
+
+	private void validateDateOrder(EventSaveOrUpdateRequest request, String timezone) {
+		if (Boolean.TRUE.equals(request.getIsKnownDate()) && !Utils.isNullOrEmpty(request.getGeneralStartDate())
+				&& !Utils.isNullOrEmpty(request.getGeneralEndDate())
+				&& !Utils.isNullOrEmpty(request.getActiveStartDate())
+				&& !Utils.isNullOrEmpty(request.getActiveEndDate())) {
+			LocalDateTime activeStartDate = TimeUtils.parseDateTime(request.getActiveStartDate(), timezone);
+			LocalDateTime generalStartDate = TimeUtils.parseDateTime(request.getGeneralStartDate(), timezone);
+			LocalDateTime generalEndDate = TimeUtils.parseDateTime(request.getGeneralEndDate(), timezone);
+			LocalDateTime activeEndDate = TimeUtils.parseDateTime(request.getActiveEndDate(), timezone);
+			if (generalStartDate.isAfter(generalEndDate) || activeStartDate.isAfter(activeEndDate)) {
+				throw new ExpoRuntimeException("XE_32");
+			}
+		}
+	}
+
 	@Override
 	public EventIntervalDate findEventIntervalDate(Long id) {
 		return eventIntervalDateRepository.findById(id).orElse(null);
@@ -306,38 +551,63 @@ public class EventServiceImpl implements EventService {
 		return eventTagRepository.findAllByEventId(eventId);
 	}
 
+	/**
+	 * Loads the tags of many events with one query per {@value #IN_CLAUSE_CHUNK_SIZE}
+	 * ids, for list views that would otherwise load the tags event by event.
+	 */
+	@Override
+	public Map<Long, List<EventTag>> getEventTags(List<Long> eventIds) {
+		Map<Long, List<EventTag>> tagsByEventId = new HashMap<>();
+		for (int from = 0; from < eventIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+			List<Long> chunk = eventIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, eventIds.size()));
+			List<EventTag> tags = entityManager
+					.createQuery("select t from EventTag t where t.event.id in :eventIds", EventTag.class)
+					.setParameter("eventIds", chunk).getResultList();
+			for (EventTag tag : tags) {
+				tagsByEventId.computeIfAbsent(tag.getEvent().getId(), id -> new ArrayList<>()).add(tag);
+			}
+		}
+		return tagsByEventId;
+	}
+
 	private void updateTags(Long eventId, List<String> newTags, Event event) {
 		// update tags
 		List<EventTag> oldTags = eventTagRepository.findAllByEventId(eventId);
-		List<String> oldTagsString = oldTags.stream().map(EventTag::getTag).toList();
+		Set<String> newTagSet = new LinkedHashSet<>(newTags);
+		Set<String> oldTagSet = new HashSet<>();
+
+		// sil
+		List<Long> removedTagIds = new ArrayList<>();
 		for (EventTag et : oldTags) {
-			if (!newTags.contains(et.getTag())) {
-				// sil
-				eventTagRepository.delete(et);
+			oldTagSet.add(et.getTag());
+			if (!newTagSet.contains(et.getTag())) {
+				removedTagIds.add(et.getId());
 			}
 		}
-		for (String t : newTags) {
-			if (!oldTagsString.contains(t)) {
-				// ekle
+		if (!removedTagIds.isEmpty()) {
+			eventTagRepository.deleteAllByIdInBatch(removedTagIds);
+		}
+
+		// ekle
+		List<EventTag> addedTags = new ArrayList<>();
+		for (String t : newTagSet) {
+			if (!oldTagSet.contains(t)) {
 				EventTag tag = new EventTag();
 				tag.setTag(t);
 				tag.setEvent(event);
-				eventTagRepository.save(tag);
+				addedTags.add(tag);
 			}
 		}
+		if (!addedTags.isEmpty()) {
+			eventTagRepository.saveAll(addedTags);
+		}
 	}
 
 	@Transactional
 	@Override
 	public void deleteEvent(Long id, String userId) {
 		Event event = getOwnEvent(id, userId);
-		EventTimeStatus eventTimeStatus = eventConverter.getEventTimeStatus(event);
-
-		if (EventStatus.RELEASED.equals(event.getEventStatus())) {
-			if (EventTimeStatus.ONGOING.equals(eventTimeStatus) || EventTimeStatus.UPCOMING.equals(eventTimeStatus)) {
-				throw new ExpoRuntimeException("XE_31");
-			}
-		}
+		throwIfViolated(deleteViolation(event, LocalDateTime.now()));
 
 		fileExternalService.removeImage(BucketFolderName.EVENT_PICTURE.getCode(), event.getPicture());
 
@@ -345,19 +615,40 @@ public class EventServiceImpl implements EventService {
 //		eventRepository.delete(event);
 
 		event.setActive(false);
-		String deleteUUID = Utils.generateUUIDForDeleteAction();
-		event.setUrl(event.getUrl() + deleteUUID);
+		String previousUrl = event.getUrl();
+		String deletedUrl = Utils.toDeletedUrl(previousUrl, id);
+		event.setUrl(deletedUrl);
 		eventRepository.save(event);
+		eventListingIndexer.remove(id);
+		afterCommit(() -> {
+			eventOrganizationResolver.evict(id);
+			eventUrlRegistry.unregister(previousUrl);
+			eventUrlRegistry.register(deletedUrl, id);
+		});
 
 		LogUtil.logInfo(EventServiceImpl.class, "event successfully deleted " + id);
 	}
 
+	private void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
 	private Event getOwnEvent(Long id, String userId) {
-		Optional<Event> optEvent = eventRepository.findByIdAndIsActive(id, true);
-		if (optEvent.isEmpty()) {
+		// lookup by id so that a cached event is served from the second level cache,
+		// a miss loads the organization and its owner in the same statement
+		Event event = entityManager.find(Event.class, id, Map.of(QueryHints.HINT_LOADGRAPH, eventFetchGraph()));
+		if (event == null || !event.isActive()) {
 			throw new ExpoRuntimeException("XE_24");
 		}
-		Event event = optEvent.get();
 
 		if (!userId.equals(event.getOrganization().getOrganizationOwner().getUserId())) {
 			throw new ExpoRuntimeException("XE_30");
@@ -365,105 +656,262 @@ public class EventServiceImpl implements EventService {
 		return event;
 	}
 
+	/**
+	 * The to-one associations read by {@link EventConverter}, fetched with the
+	 * event in one statement instead of lazily one by one.
+	 */
+	private EntityGraph<Event> eventFetchGraph() {
+		EntityGraph<Event> graph = entityManager.createEntityGraph(Event.class);
+		graph.addAttributeNodes(EVENT_INTERNAL_DATE, EVENT_TENANT);
+		graph.addSubgraph(ORGANIZATION).addAttributeNodes(ORGANIZATION_OWNER);
+		return graph;
+	}
+
+	/**
+	 * Saves the dates and re-indexes the listing of the event they belong to, the
+	 * materialized time status and the scheduled transitions follow the new
+	 * dates.
+	 */
+	@Transactional
 	@Override
 	public EventIntervalDate saveEventIntervalDate(EventIntervalDate eventIntervalDate) {
-		return eventIntervalDateRepository.save(eventIntervalDate);
+		EventIntervalDate savedEventIntervalDate = eventIntervalDateRepository.save(eventIntervalDate);
+		entityManager.createQuery(EVENT_BY_INTERVAL_DATE_QUERY, Event.class)
+				.setParameter("eventIntervalDateId", savedEventIntervalDate.getId()).getResultList()
+				.forEach(eventListingIndexer::index);
+		return savedEventIntervalDate;
 	}
 
+	/**
+	 * The status check and the change are one conditional update, so concurrent
+	 * transitions of the same event cannot both succeed and no row is locked
+	 * while Java decides. When no row matches, the event is read once to report
+	 * why.
+	 */
 	@Transactional
 	@Override
 	public void publishEvent(Long id, String userId) {
 
+		LocalDateTime now = LocalDateTime.now();
+		int updated = entityManager.createQuery(CONDITIONAL_PUBLISH_UPDATE)
+				.setParameter("status", EventStatus.RELEASED).setParameter("allowedStatuses", PUBLISHABLE_STATUSES)
+				.setParameter("now", now).setParameter(ID, id).setParameter("userId", userId).executeUpdate();
+		if (updated == 0) {
+			throwTransitionFailure(id, userId, true, now);
+		}
+		updateEventTenantStatus(id, true);
+
+		mailOutboxService.enqueueChangePublishStatus(id, userId, true);
+
+		mailOutboxService.enqueueSponsorEventPublished(id);
+
+		LogUtil.logInfo(EventServiceImpl.class, "event successfully publish " + id);
+	}
+
+	@Transactional
+	@Override
+	public void unPublishEvent(Long id, String userId) {
+		LocalDateTime now = LocalDateTime.now();
+		int updated = entityManager.createQuery(CONDITIONAL_UNPUBLISH_UPDATE)
+				.setParameter("status", EventStatus.UNPUBLISHED).setParameter("excludedStatuses", PUBLISHABLE_STATUSES)
+				.setParameter("now", now).setParameter(ID, id).setParameter("userId", userId).executeUpdate();
+		if (updated == 0) {
+			throwTransitionFailure(id, userId, false, now);
+		}
+		updateEventTenantStatus(id, false);
+
+		mailOutboxService.enqueueChangePublishStatus(id, userId, false);
+
+		LogUtil.logInfo(EventServiceImpl.class, "event successfully publish " + id);
+	}
+
+	private void updateEventTenantStatus(Long eventId, boolean status) {
+		entityManager.createQuery(EVENT_TENANT_STATUS_UPDATE).setParameter("active", status)
+				.setParameter(EVENT_ID, eventId).executeUpdate();
+	}
+
+	// only reached when the conditional update matched no row
+	private void throwTransitionFailure(Long id, String userId, boolean isPublish, LocalDateTime now) {
 		Event event = getOwnEvent(id, userId);
+		throwIfViolated(isPublish ? publishViolation(event, now) : unPublishViolation(event, now));
+		// the event changed between the update and this read, a concurrent transition won
+		throw new ExpoRuntimeException("XE_31", "event status changed concurrently " + id);
+	}
 
-		if (!event.isActive()) {
-			throw new ExpoRuntimeException("XE_24");
+	/**
+	 * Applies publish, unpublish or delete to many events in one call. The
+	 * targets are loaded with their associations and locked in one query per id
+	 * chunk, then checked with the same rules as the single event endpoints. The
+	 * accepted events are changed with set-based updates that repeat the checks,
+	 * and rejected events are reported per id instead of failing the whole call.
+	 */
+	@Transactional
+	@Override
+	public List<BulkEventResult> bulkUpdateEvents(List<Long> eventIds, BulkEventAction action, String userId) {
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(eventIds));
+		Map<Long, Event> events = loadBulkTargets(distinctIds);
+		LocalDateTime now = LocalDateTime.now();
+
+		List<BulkEventResult> results = new ArrayList<>(distinctIds.size());
+		List<Event> accepted = new ArrayList<>();
+		for (Long id : distinctIds) {
+			Event event = events.get(id);
+			String violation = bulkViolation(event, action, userId, now);
+			if (violation == null) {
+				accepted.add(event);
+			}
+			results.add(new BulkEventResult(id, violation == null, violation));
 		}
 
-		if (!(EventStatus.DRAFT.equals(event.getEventStatus())
-				|| EventStatus.UNPUBLISHED.equals(event.getEventStatus()))) {
-			throw new ExpoRuntimeException("XE_31");
+		if (!accepted.isEmpty()) {
+			if (BulkEventAction.DELETE.equals(action)) {
+				bulkDelete(accepted);
+			} else {
+				bulkChangePublishStatus(accepted, BulkEventAction.PUBLISH.equals(action), userId, now);
+			}
 		}
+		LogUtil.logInfo(EventServiceImpl.class, "bulk " + action + " applied to " + accepted.size() + " of "
+				+ distinctIds.size() + " events");
+		return results;
+	}
 
-		EventTimeStatus eventTimeStatus = eventConverter.getEventTimeStatus(event);
+	/**
+	 * Locks the event rows only (for update of the event alias), the fetched
+	 * associations stay unlocked and the outer joined interval date is allowed.
+	 * The checks below then see a state no concurrent transition can change
+	 * before the updates run.
+	 */
+	private Map<Long, Event> loadBulkTargets(List<Long> eventIds) {
+		List<Long> sortedIds = eventIds.stream().sorted().collect(Collectors.toList());
+		Map<Long, Event> events = new HashMap<>();
+		for (int from = 0; from < sortedIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+			List<Long> chunk = sortedIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, sortedIds.size()));
+			entityManager.createQuery(BULK_TARGET_QUERY, Event.class).setParameter("eventIds", chunk)
+					.setHint(QueryHints.HINT_NATIVE_LOCKMODE + "." + BULK_TARGET_ALIAS, LockMode.PESSIMISTIC_WRITE)
+					.getResultList().forEach(event -> events.put(event.getId(), event));
+		}
+		return events;
+	}
 
-		if (eventTimeStatus == null || EventTimeStatus.COMPLETED.equals(eventTimeStatus)) {
-			throw new ExpoRuntimeException("XE_32");
+	private String bulkViolation(Event event, BulkEventAction action, String userId, LocalDateTime now) {
+		if (event == null || !event.isActive()) {
+			return "XE_24";
+		}
+		if (!userId.equals(event.getOrganization().getOrganizationOwner().getUserId())) {
+			return "XE_30";
 		}
+		switch (action) {
+		case PUBLISH:
+			return publishViolation(event, now);
+		case UNPUBLISH:
+			return unPublishViolation(event, now);
+		default:
+			return deleteViolation(event, now);
+		}
+	}
 
-		event.setEventStatus(EventStatus.RELEASED);
-		updateStatusEventTenant(event.getEventTenant(), true);
+	private void bulkChangePublishStatus(List<Event> events, boolean isPublish, String userId, LocalDateTime now) {
+		List<Long> ids = events.stream().map(Event::getId).collect(Collectors.toList());
+		List<Long> tenantIds = events.stream().map(event -> event.getEventTenant().getId())
+				.collect(Collectors.toList());
+
+		int updated = entityManager.createQuery(isPublish ? BULK_PUBLISH_UPDATE : BULK_UNPUBLISH_UPDATE)
+				.setParameter("status", isPublish ? EventStatus.RELEASED : EventStatus.UNPUBLISHED)
+				.setParameter(isPublish ? "allowedStatuses" : "excludedStatuses", PUBLISHABLE_STATUSES)
+				.setParameter("now", now).setParameter("eventIds", ids).executeUpdate();
+		if (updated != ids.size()) {
+			// the rows are locked and were checked with the same rules, a mismatch means the checks disagree
+			throw new ExpoRuntimeException("XE_31", "bulk status update matched " + updated + " of " + ids.size());
+		}
+		entityManager.createQuery(BULK_TENANT_UPDATE).setParameter("active", isPublish)
+				.setParameter("tenantIds", tenantIds).executeUpdate();
 
-		eventRepository.save(event);
+		for (Long id : ids) {
+			mailOutboxService.enqueueChangePublishStatus(id, userId, isPublish);
+			if (isPublish) {
+				mailOutboxService.enqueueSponsorEventPublished(id);
+			}
+		}
+	}
 
-		mailSendService.changePublicStatusEvent(getChangePublishEventMailPayload(event, true, userId));
+	private void bulkDelete(List<Event> events) {
+		List<Long> ids = events.stream().map(Event::getId).collect(Collectors.toList());
 
-		sponsorService.sendMailsWhenPublished(event);
+		entityManager.createQuery(BULK_DELETE_UPDATE).setParameter("marker", Utils.DELETED_URL_MARKER)
+				.setParameter("eventIds", ids).executeUpdate();
+		eventListingIndexer.removeAll(ids);
 
-		LogUtil.logInfo(EventServiceImpl.class, "event successfully publish " + id);
+		// remote and cache side effects only once the rows are really gone
+		afterCommit(() -> events.forEach(event -> {
+			try {
+				fileExternalService.removeImage(BucketFolderName.EVENT_PICTURE.getCode(), event.getPicture());
+			} catch (Exception e) {
+				LogUtil.logError(EventServiceImpl.class, "bulk delete removeImage failed " + event.getId(), e);
+			}
+			eventOrganizationResolver.evict(event.getId());
+			eventUrlRegistry.unregister(event.getUrl());
+			eventUrlRegistry.register(Utils.toDeletedUrl(event.getUrl(), event.getId()), event.getId());
+		}));
 	}
 
-	@Transactional
-	@Override
-	public void unPublishEvent(Long id, String userId) {
-		Event event = getOwnEvent(id, userId);
+	private String publishViolation(Event event, LocalDateTime now) {
+		if (!(EventStatus.DRAFT.equals(event.getEventStatus())
+				|| EventStatus.UNPUBLISHED.equals(event.getEventStatus()))) {
+			return "XE_31";
+		}
 
-		if (!event.isActive()) {
-			throw new ExpoRuntimeException("XE_24");
+		EventTimeStatus eventTimeStatus = timeStatusOf(event, now);
+
+		if (eventTimeStatus == null || EventTimeStatus.COMPLETED.equals(eventTimeStatus)) {
+			return "XE_32";
 		}
+		return null;
+	}
 
+	private String unPublishViolation(Event event, LocalDateTime now) {
 		if (EventStatus.DRAFT.equals(event.getEventStatus())
 				|| EventStatus.UNPUBLISHED.equals(event.getEventStatus())) {
-			throw new ExpoRuntimeException("XE_31");
+			return "XE_31";
 		}
 
-		EventTimeStatus eventTimeStatus = eventConverter.getEventTimeStatus(event);
+		EventTimeStatus eventTimeStatus = timeStatusOf(event, now);
 
 		if (EventTimeStatus.COMPLETED.equals(eventTimeStatus)) {
-			throw new ExpoRuntimeException("XE_32");
+			return "XE_32";
 		}
-
-		event.setEventStatus(EventStatus.UNPUBLISHED);
-		updateStatusEventTenant(event.getEventTenant(), false);
-
-		eventRepository.save(event);
-
-		mailSendService.changePublicStatusEvent(getChangePublishEventMailPayload(event, false, userId));
-
-		LogUtil.logInfo(EventServiceImpl.class, "event successfully publish " + id);
+		return null;
 	}
 
-	private ChangePublishEventMailPayload getChangePublishEventMailPayload(Event event, boolean isPublish,
-			String publishUserId) {
-		String userId = event.getOrganization().getOrganizationOwner().getUserId();
-		UserBaseFieldResponse findOrganizerUserInfo = userService.findOrganizerUserInfo(userId);
-		String nameAndSurname = findOrganizerUserInfo.getName() + " " + findOrganizerUserInfo.getLastName();
+	// the time status every write rule checks, the same as PUBLISHABLE_DATES and NOT_COMPLETED_DATES
+	private EventTimeStatus timeStatusOf(Event event, LocalDateTime now) {
+		EventIntervalDate eventIntervalDate = event.getEventIntervalDate();
+		if (eventIntervalDate == null) {
+			return null;
+		}
+		return EventTimeStatusScheduler.timeStatusAt(eventIntervalDate.getGeneralStartDate(),
+				eventIntervalDate.getGeneralEndDate(), now);
+	}
 
-		String languageCode = userLanguageUtils.getLanguageCode(publishUserId);
+	private String deleteViolation(Event event, LocalDateTime now) {
+		EventTimeStatus eventTimeStatus = timeStatusOf(event, now);
 
-		String eventLocationType = EventLocationType.getValueByLang(event.getEventLocationType().getCode(),
-				languageCode.toUpperCase());
+		if (EventStatus.RELEASED.equals(event.getEventStatus())) {
+			if (EventTimeStatus.ONGOING.equals(eventTimeStatus) || EventTimeStatus.UPCOMING.equals(eventTimeStatus)) {
+				return "XE_31";
+			}
+		}
+		return null;
+	}
 
-		String mainNameLanguage = "";
-		if (!Utils.isNullOrEmpty(event.getNameSecondLang())) {
-			mainNameLanguage = languageCode.equalsIgnoreCase(event.getMainLanguage()) ? event.getNameMainLang()
-					: event.getNameSecondLang();
-		} else {
-			mainNameLanguage = event.getNameMainLang();
+	private void throwIfViolated(String violation) {
+		if (violation != null) {
+			throw new ExpoRuntimeException(violation);
 		}
-		String timeZoneForRedis = timeZoneRedisUtils.getTimeZoneForRedis(publishUserId);
-		return ChangePublishEventMailPayload.builder().eventName(mainNameLanguage).fuarName(event.getNameMainLang())
-				.fuarType(eventLocationType).organizationName(nameAndSurname).email(event.getOrganization().getEmail())
-				.organizationStartDate(
-						TimeUtils.getDateTimeZone(event.getEventIntervalDate().getGeneralStartDate(), timeZoneForRedis))
-				.organizationEndDate(
-						TimeUtils.getDateTimeZone(event.getEventIntervalDate().getGeneralEndDate(), timeZoneForRedis))
-				.language(languageCode).isPublish(isPublish).build();
 	}
 
 	@Override
 	public Event findActiveEventById(Long eventId) {
-		Optional<Event> optionalEvent = eventRepository.findByIdAndIsActive(eventId, true);
+		Optional<Event> optionalEvent = eventRepository.findById(eventId).filter(Event::isActive);
 		return optionalEvent.orElseThrow(() -> new ExpoRuntimeException("XE_24"));
 	}
 
@@ -488,19 +936,37 @@ public class EventServiceImpl implements EventService {
 		}
 	}
 
+	/**
+	 * Live availability check for the url field, answered from the url registry
+	 * when it is loaded. Writes check against the database again.
+	 */
 	@Override
 	public boolean urlCheck(String url, Long eventId) {
 
+		validateUrl(url);
+
+		Boolean taken = eventUrlRegistry.isTaken(url, eventId);
+		if (taken == null) {
+			checkUrlAvailability(url, eventId);
+		} else if (taken) {
+			throw new ExpoRuntimeException("XE_5", "domain name is unavailable");
+		}
+		return true;
+
+	}
+
+	private void validateUrl(String url) {
 		if (url.length() > 63 || url.length() < 1) {
 			throw new ExpoRuntimeException("XE_4", "wrong domain name");
 		}
 
 		// sadece sayılar ve harfler
-		boolean regexControl = Pattern.matches(RegexpUtils.URL_REGEXP, url);
-		if (!regexControl) {
+		if (!URL_PATTERN.matcher(url).matches()) {
 			throw new ExpoRuntimeException("XE_4", "wrong domain name");
 		}
+	}
 
+	private void checkUrlAvailability(String url, Long eventId) {
 		if (eventId == null) {
 			if (eventRepository.existsByUrl(url)) {
 				throw new ExpoRuntimeException("XE_5", "domain name is unavailable");
@@ -510,8 +976,6 @@ public class EventServiceImpl implements EventService {
 				throw new ExpoRuntimeException("XE_5", "domain name is unavailable");
 			}
 		}
-		return true;
-
 	}
 
 	@Override
@@ -542,10 +1006,140 @@ public class EventServiceImpl implements EventService {
 	@Override
 	public List<EventDTO> queryEvents(String i18n, EventQueryRequest request, String userId, Long organizationId) {
 
+		CriteriaQuery<Event> query = buildEventQuery(request, organizationId, null);
+
+		String timeZoneUser = userContextProvider.current().getTimeZone(userId);
+
+		List<EventDTO> eventDtoList = entityManager.createQuery(query)
+				.setHint(QueryHints.HINT_LOADGRAPH, eventFetchGraph()).getResultStream()
+				.map(e -> eventConverter.toDto(e, timeZoneUser)).toList();
+
+		addPermissionEventList(eventDtoList, userId);
+
+		return eventDtoList;
+
+	}
+
+	@Override
+	public EventPageDTO queryEventsPage(String i18n, EventQueryRequest request, String userId, Long organizationId,
+			Integer pageSize, String cursor) {
+
+		int size = resolvePageSize(pageSize);
+		CriteriaQuery<Event> query = buildEventQuery(request, organizationId, decodeCursor(cursor));
+
+		// one extra row tells us whether there is a next page without a count query
+		List<Event> events = entityManager.createQuery(query).setHint(QueryHints.HINT_LOADGRAPH, eventFetchGraph())
+				.setMaxResults(size + 1).getResultList();
+		boolean hasNext = events.size() > size;
+		List<Event> page = hasNext ? events.subList(0, size) : events;
+
+		String timeZoneUser = userContextProvider.current().getTimeZone(userId);
+
+		List<EventDTO> eventDtoList = page.stream().map(e -> eventConverter.toDto(e, timeZoneUser)).toList();
+
+		addPermissionEventList(eventDtoList, userId);
+
+		String nextCursor = hasNext ? encodeCursor(request, page.get(page.size() - 1)) : null;
+		return new EventPageDTO(eventDtoList, nextCursor);
+	}
+
+	/**
+	 * Name search ordered by relevance: names starting with the text first, then
+	 * names with a word starting with it, then any other match, shorter names
+	 * before longer ones.
+	 */
+	@Override
+	public List<EventDTO> searchEvents(String i18n, String search, String userId, Long organizationId,
+			Integer size) {
+
+		String searchText = Utils.normalizeSearchText(search);
+		if (searchText.length() < 3) {
+			return List.of();
+		}
+		searchText = escapeLike(searchText);
+
+		List<Event> events = entityManager.createQuery(RELEVANCE_SEARCH_QUERY, Event.class)
+				.setParameter(ORGANIZATION_ID, organizationId).setParameter("contains", "%" + searchText + "%")
+				.setParameter("prefix", searchText + "%").setParameter("wordPrefix", "% " + searchText + "%")
+				.setHint(QueryHints.HINT_LOADGRAPH, eventFetchGraph()).setMaxResults(resolvePageSize(size))
+				.getResultList();
+
+		String timeZoneUser = userContextProvider.current().getTimeZone(userId);
+
+		List<EventDTO> eventDtoList = events.stream().map(e -> eventConverter.toDto(e, timeZoneUser)).toList();
+
+		addPermissionEventList(eventDtoList, userId);
+
+		return eventDtoList;
+	}
+
+	/**
+	 * Collects what a stream needs from the caller before it starts: the query,
+	 * the user and the timezone of the user. Runs on the request thread or on an
+	 * export worker, outside of a request the timezone comes from a fresh user
+	 * context.
+	 */
+	@Override
+	public EventStreamContext prepareEventStream(EventQueryRequest request, String userId, Long organizationId) {
+		return new EventStreamContext(request, organizationId, userId,
+				userContextProvider.current().getTimeZone(userId));
+	}
+
+	/**
+	 * Streams the matching events to the consumer in chunks of
+	 * {@value #STREAM_CHUNK_SIZE}, paging with the same keyset as
+	 * {@link #queryEventsPage}. Every chunk is read and converted in a short
+	 * transaction of its own, its permissions are fetched from auth-service
+	 * after it and the chunk is handed to the consumer, so a slow consumer (a
+	 * client reading the response) holds no database connection and memory is
+	 * bounded by the chunk size, not by the number of events.
+	 */
+	@Override
+	public void streamEvents(EventStreamContext context, Consumer<List<EventDTO>> chunkConsumer) {
+		KeysetCursor after = null;
+		StreamChunk chunk;
+		do {
+			KeysetCursor chunkAfter = after;
+			chunk = transactionTemplate.execute(status -> readStreamChunk(context, chunkAfter));
+			if (chunk.events.isEmpty()) {
+				return;
+			}
+			List<Long> eventIds = chunk.events.stream().map(EventDTO::getId).toList();
+			Map<Long, List<UserIdAndPermissionList>> permissionsByEventId = findPermissionsByEventId(eventIds,
+					context.getOrganizationId(), context.getUserId());
+			for (EventDTO eventDto : chunk.events) {
+				setPermissionList(eventDto, permissionsByEventId.getOrDefault(eventDto.getId(), List.of()));
+			}
+			chunkConsumer.accept(chunk.events);
+			after = chunk.last;
+		} while (chunk.events.size() == STREAM_CHUNK_SIZE);
+	}
+
+	private StreamChunk readStreamChunk(EventStreamContext context, KeysetCursor after) {
+		EventQueryRequest request = context.getRequest();
+		List<Event> events = entityManager.createQuery(buildEventQuery(request, context.getOrganizationId(), after))
+				.setHint(QueryHints.HINT_LOADGRAPH, eventFetchGraph()).setHint(QueryHints.HINT_READONLY, true)
+				.setMaxResults(STREAM_CHUNK_SIZE).getResultList();
+		if (events.isEmpty()) {
+			return new StreamChunk(List.of(), null);
+		}
+		List<EventDTO> eventDtoList = events.stream().map(e -> eventConverter.toDto(e, context.getTimeZone()))
+				.toList();
+		return new StreamChunk(eventDtoList, cursorOf(request, events.get(events.size() - 1)));
+	}
+
+	private CriteriaQuery<Event> buildEventQuery(EventQueryRequest request, Long organizationId,
+			KeysetCursor after) {
+		CriteriaQuery<Event> query = entityManager.getCriteriaBuilder().createQuery(Event.class);
+		Root<Event> root = query.from(Event.class);
+		return query.select(root).where(buildEventPredicate(request, organizationId, after, query, root));
+	}
+
+	private Predicate buildEventPredicate(EventQueryRequest request, Long organizationId, KeysetCursor after,
+			CriteriaQuery<?> query, Root<Event> root) {
+
 		// boilerplate
 		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-		CriteriaQuery<Event> query = builder.createQuery(Event.class);
-		Root<Event> root = query.from(Event.class);
 
 		// prepare predicates
 		List<Predicate> predicates = new ArrayList<>();
@@ -554,23 +1148,16 @@ public class EventServiceImpl implements EventService {
 		predicates.add(isActive);
 
 		Join<Order, Item> organizationJoin = root.join(ORGANIZATION, JoinType.LEFT);
-		Predicate organizationIdPredicate = builder.equal(organizationJoin.get("id"), organizationId);
+		Predicate organizationIdPredicate = builder.equal(organizationJoin.get(ID), organizationId);
 		predicates.add(organizationIdPredicate);
 
-		if (request.getSearch().length() > 2) {
-			setSearchParam(request, builder, root, predicates);
+		if (Utils.normalizeSearchText(request.getSearch()).length() > 2) {
+			setSearchParam(request, organizationId, builder, root, query, predicates);
 		}
 
-		if (EventColumn.TIME == request.getOrderColumn()) {
-			Join<Order, Item> eventIntervalDateJoin = root.join(EVENT_INTERNAL_DATE, JoinType.LEFT);
+		setOrderAndKeysetParams(request, builder, root, query, after, predicates);
 
-			setOrderParamsTime(request, builder, eventIntervalDateJoin, query);
-
-		} else {
-			setOrderParams(request, builder, root, query);
-
-		}
-		List<Predicate> timePredicates = prepareTimeParams(request, builder, root);
+		List<Predicate> timePredicates = prepareTimeParams(request, organizationId, builder, root, query);
 
 		// Combine predicates
 		Predicate searchPredicates = builder.and(predicates.toArray(Predicate[]::new));
@@ -583,18 +1170,7 @@ public class EventServiceImpl implements EventService {
 			finalPredicate = builder.and(timesPredicates, searchPredicates);
 		}
 
-		// query and return
-		query.select(root).where(finalPredicate);
-
-		String timeZoneUser = timeZoneRedisUtils.getTimeZoneForRedis(userId);
-
-		List<EventDTO> eventDtoList = entityManager.createQuery(query).getResultStream()
-				.map(e -> eventConverter.toDto(e, timeZoneUser)).toList();
-
-		addPermissionEventList(eventDtoList, userId);
-
-		return eventDtoList;
-
+		return finalPredicate;
 	}
 
 	private void addPermissionEventList(List<EventDTO> eventDtoList, String userId) {
@@ -602,74 +1178,265 @@ public class EventServiceImpl implements EventService {
 			return;
 		}
 
-		EventPermissionPayload eventPermissionPayload = new EventPermissionPayload();
 		List<Long> eventIdList = eventDtoList.stream().map(EventDTO::getId).toList();
+		Map<Long, List<UserIdAndPermissionList>> permissionsByEventId = findPermissionsByEventId(eventIdList,
+				eventDtoList.get(0).getOrganizationId(), userId);
 
-		eventPermissionPayload.setOrganizationId(eventDtoList.get(0).getOrganizationId());
+		for (EventDTO eventDto : eventDtoList) {
+			setPermissionList(eventDto, permissionsByEventId.getOrDefault(eventDto.getId(), List.of()));
+		}
+
+	}
+
+	/**
+	 * The permission entries of the user for every event: the entries of the
+	 * event and the organization level ones, in the order of the auth response.
+	 */
+	private Map<Long, List<UserIdAndPermissionList>> findPermissionsByEventId(List<Long> eventIdList,
+			Long organizationId, String userId) {
+		EventPermissionPayload eventPermissionPayload = new EventPermissionPayload();
+		eventPermissionPayload.setOrganizationId(organizationId);
 		eventPermissionPayload.setUserId(userId);
 		eventPermissionPayload.setEventIdList(eventIdList);
 		List<UserIdAndPermissionList> userIdAndPermissionList = authExternalService
 				.findListPermissionEventRole(eventPermissionPayload);
 		assert !userIdAndPermissionList.isEmpty();
 
-		for (EventDTO eventDto : eventDtoList) {
-			List<UserIdAndPermissionList> userEventPermissionList = userIdAndPermissionList.stream()
-					.filter(permission -> permission.getEventId().equals(eventDto.getId())
-							|| permission.getEventId().equals(eventDto.getOrganizationId()))
-					.toList();
-			eventDto.setPermissionList(
-					userEventPermissionList.stream().map(UserIdAndPermissionList::getUserPermissionList).toList());
+		return groupPermissionsByEventId(userIdAndPermissionList, eventIdList, organizationId);
+	}
+
+	/**
+	 * Groups the auth response once by event id instead of filtering it per
+	 * event. Every event gets its own entries and the organization level ones
+	 * merged by their position in the response, the order the former per event
+	 * filter produced.
+	 */
+	static Map<Long, List<UserIdAndPermissionList>> groupPermissionsByEventId(
+			List<UserIdAndPermissionList> userIdAndPermissionList, List<Long> eventIdList, Long organizationId) {
+		// organization level entries share the key space of the event ids
+		Map<Long, List<Integer>> positionsByEventId = new HashMap<>();
+		for (int position = 0; position < userIdAndPermissionList.size(); position++) {
+			positionsByEventId.computeIfAbsent(userIdAndPermissionList.get(position).getEventId(),
+					eventId -> new ArrayList<>()).add(position);
 		}
 
+		List<Integer> organizationPositions = positionsByEventId.getOrDefault(organizationId, List.of());
+		Map<Long, List<UserIdAndPermissionList>> permissionsByEventId = new HashMap<>();
+		for (Long eventId : eventIdList) {
+			List<Integer> eventPositions = positionsByEventId.getOrDefault(eventId, List.of());
+			List<Integer> otherPositions = eventId.equals(organizationId) ? List.of() : organizationPositions;
+			List<UserIdAndPermissionList> permissions = new ArrayList<>(eventPositions.size() + otherPositions.size());
+			int i = 0;
+			int j = 0;
+			while (i < eventPositions.size() || j < otherPositions.size()) {
+				boolean takeEvent = j == otherPositions.size()
+						|| (i < eventPositions.size() && eventPositions.get(i) < otherPositions.get(j));
+				permissions.add(userIdAndPermissionList.get(takeEvent ? eventPositions.get(i++) : otherPositions.get(j++)));
+			}
+			permissionsByEventId.put(eventId, permissions);
+		}
+		return permissionsByEventId;
 	}
 
-	private void setOrderParams(EventQueryRequest request, CriteriaBuilder builder, Root<Event> root,
-			CriteriaQuery<Event> query) {
-		if (request.getDirection().equals("DESC")) {
-			query.orderBy(builder.desc(root.get(request.getOrderColumn().getValue())));
-		} else {
-			query.orderBy(builder.asc(root.get(request.getOrderColumn().getValue())));
+	private void setPermissionList(EventDTO eventDto, List<UserIdAndPermissionList> permissions) {
+		eventDto.setPermissionList(permissions.stream().map(UserIdAndPermissionList::getUserPermissionList).toList());
+	}
+
+	private <T extends Comparable<? super T>> Expression<T> getOrderExpression(EventQueryRequest request,
+			From<Event, Event> from) {
+		if (EventColumn.TIME == request.getOrderColumn()) {
+			Join<Order, Item> eventIntervalDateJoin = from.join(EVENT_INTERNAL_DATE, JoinType.LEFT);
+			return eventIntervalDateJoin.get(request.getOrderColumn().getValue());
 		}
+		return from.get(request.getOrderColumn().getValue());
 	}
 
-	private void setOrderParamsTime(EventQueryRequest request, CriteriaBuilder builder, Join<Order, Item> root,
-			CriteriaQuery<Event> query) {
-		if (request.getDirection().equals("DESC")) {
-			query.orderBy(builder.desc(root.get(request.getOrderColumn().getValue())));
-		} else {
-			query.orderBy(builder.asc(root.get(request.getOrderColumn().getValue())));
+	/**
+	 * Reads the value the page is ordered by from the event. The interval date is
+	 * walked by hand: an event without one sorts as null, as in the left join of
+	 * {@link #getOrderExpression}.
+	 */
+	private Object getSortValue(EventQueryRequest request, Event event) {
+		Object bean = event;
+		if (EventColumn.TIME == request.getOrderColumn()) {
+			bean = event.getEventIntervalDate();
+			if (bean == null) {
+				return null;
+			}
 		}
+		return PropertyAccessorFactory.forBeanPropertyAccess(bean).getPropertyValue(request.getOrderColumn().getValue());
 	}
 
-	private void setSearchParam(EventQueryRequest request, CriteriaBuilder builder, Root<Event> root,
+	/**
+	 * Orders by the requested column with null values always last, whatever the
+	 * direction, and by id as the tie-breaker so that the ordering is total and
+	 * usable as a keyset. With a cursor, seeks past the last event of the
+	 * previous page using the sort value stored in the cursor, so paging goes on
+	 * when that event has been deleted since.
+	 */
+	private <T extends Comparable<? super T>> void setOrderAndKeysetParams(EventQueryRequest request,
+			CriteriaBuilder builder, Root<Event> root, CriteriaQuery<?> query, KeysetCursor after,
 			List<Predicate> predicates) {
 
-		String searchText1 = request.getSearch().toLowerCase(TURKISH).replace("ı", "i");
-		String searchText2 = request.getSearch().toLowerCase(TURKISH).replace("i", "ı");
-		Predicate search1 = builder.like(builder.lower(root.get(EventColumn.NAME.getValue())), "%" + searchText1 + "%");
-		Predicate search2 = builder.like(builder.lower(root.get(EventColumn.NAME.getValue())), "%" + searchText2 + "%");
-		predicates.add(builder.or(search1, search2));
+		Expression<T> orderExpression = getOrderExpression(request, root);
+		Expression<Integer> nullsLast = builder.<Integer>selectCase().when(builder.isNull(orderExpression), 1)
+				.otherwise(0);
+		boolean descending = request.getDirection().equals("DESC");
+		if (descending) {
+			query.orderBy(builder.asc(nullsLast), builder.desc(orderExpression), builder.desc(root.get(ID)));
+		} else {
+			query.orderBy(builder.asc(nullsLast), builder.asc(orderExpression), builder.asc(root.get(ID)));
+		}
+
+		if (after == null) {
+			return;
+		}
+		Expression<Long> id = root.get(ID);
+		Predicate idAfter = descending ? builder.lessThan(id, after.eventId) : builder.greaterThan(id, after.eventId);
+		if (after.sortValue == null) {
+			predicates.add(builder.and(builder.isNull(orderExpression), idAfter));
+			return;
+		}
+		T anchor = parseSortValue(orderExpression.getJavaType(), after.sortValue);
+		Predicate valueAfter = descending ? builder.lessThan(orderExpression, anchor)
+				: builder.greaterThan(orderExpression, anchor);
+		predicates.add(builder.or(valueAfter, builder.and(builder.equal(orderExpression, anchor), idAfter),
+				builder.isNull(orderExpression)));
 	}
 
-	private List<Predicate> prepareTimeParams(EventQueryRequest request, CriteriaBuilder builder, Root<Event> root) {
-		LocalDateTime now = LocalDateTime.now();
-		List<Predicate> timePredicates = new ArrayList<>();
-		Join<Order, Item> eventIntervalDateJoin = root.join(EVENT_INTERNAL_DATE, JoinType.LEFT);
-		for (EventTimeStatus status : request.getStatusList()) {
-			if (EventTimeStatus.UPCOMING.equals(status)) {
-				Predicate upcoming = builder.greaterThan(eventIntervalDateJoin.get(GENERAL_START_DATE), now);
-				timePredicates.add(builder.or(upcoming));
-			}
-			if (EventTimeStatus.ONGOING.equals(status)) {
-				Predicate ongoing = builder.and(builder.lessThan(eventIntervalDateJoin.get(GENERAL_START_DATE), now),
-						builder.greaterThan(eventIntervalDateJoin.get(GENERAL_END_DATE), now));
-				timePredicates.add(builder.or(ongoing));
+	private <T> T parseSortValue(Class<? extends T> type, String value) {
+		try {
+			return type.cast(parseSortObject(type, value));
+		} catch (IllegalArgumentException | DateTimeException | ClassCastException e) {
+			throw new ExpoRuntimeException("XE_33", "invalid cursor");
+		}
+	}
+
+	private Object parseSortObject(Class<?> type, String value) {
+		if (String.class.equals(type)) {
+			return value;
+		}
+		if (Long.class.equals(type)) {
+			return Long.valueOf(value);
+		}
+		if (Integer.class.equals(type)) {
+			return Integer.valueOf(value);
+		}
+		if (LocalDateTime.class.equals(type)) {
+			return LocalDateTime.parse(value);
+		}
+		if (LocalDate.class.equals(type)) {
+			return LocalDate.parse(value);
+		}
+		if (type.isEnum()) {
+			return Arrays.stream(type.getEnumConstants()).filter(constant -> ((Enum<?>) constant).name().equals(value))
+					.findFirst().orElseThrow(() -> new IllegalArgumentException("unknown constant " + value));
+		}
+		throw new IllegalArgumentException("unsupported sort type " + type);
+	}
+
+	private int resolvePageSize(Integer pageSize) {
+		if (pageSize == null || pageSize < 1) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return Math.min(pageSize, MAX_PAGE_SIZE);
+	}
+
+	/**
+	 * The cursor carries the id and the sort value of the last event of the page,
+	 * as {@code id|} when the sort value is null and {@code id|vvalue} otherwise.
+	 */
+	private String encodeCursor(EventQueryRequest request, Event event) {
+		KeysetCursor cursor = cursorOf(request, event);
+		String encodedValue = cursor.sortValue == null ? "" : "v" + cursor.sortValue;
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((cursor.eventId + "|" + encodedValue).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private KeysetCursor cursorOf(EventQueryRequest request, Event event) {
+		Object sortValue = getSortValue(request, event);
+		if (sortValue instanceof Enum<?>) {
+			return new KeysetCursor(event.getId(), ((Enum<?>) sortValue).name());
+		}
+		return new KeysetCursor(event.getId(), sortValue == null ? null : sortValue.toString());
+	}
+
+	private KeysetCursor decodeCursor(String cursor) {
+		if (Utils.isNullOrEmpty(cursor)) {
+			return null;
+		}
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = decoded.indexOf('|');
+			Long eventId = Long.valueOf(decoded.substring(0, separator));
+			String sortValue = decoded.substring(separator + 1);
+			if (sortValue.isEmpty()) {
+				return new KeysetCursor(eventId, null);
 			}
-			if (EventTimeStatus.COMPLETED.equals(status)) {
-				Predicate past = builder.lessThan(eventIntervalDateJoin.get(GENERAL_END_DATE), now);
-				timePredicates.add(builder.or(past));
+			if (sortValue.charAt(0) != 'v') {
+				throw new IllegalArgumentException("unknown cursor value " + sortValue);
 			}
+			return new KeysetCursor(eventId, sortValue.substring(1));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new ExpoRuntimeException("XE_33", "invalid cursor");
+		}
+	}
+
+	private static final class KeysetCursor {
+
+		private final Long eventId;
+
+		// string form of the sort value, null when the event had none
+		private final String sortValue;
+
+		private KeysetCursor(Long eventId, String sortValue) {
+			this.eventId = eventId;
+			this.sortValue = sortValue;
+		}
+	}
+
+	private static final class StreamChunk {
+
+		private final List<EventDTO> events;
+
+		// position of the last event, the next chunk starts after it
+		private final KeysetCursor last;
+
+		private StreamChunk(List<EventDTO> events, KeysetCursor last) {
+			this.events = events;
+			this.last = last;
+		}
+	}
+
+	private void setSearchParam(EventQueryRequest request, Long organizationId, CriteriaBuilder builder,
+			Root<Event> root, CriteriaQuery<?> query, List<Predicate> predicates) {
+
+		// folded key maintained on write, served by the trigram index instead of lower(name) scans
+		String searchText = escapeLike(Utils.normalizeSearchText(request.getSearch()));
+		Subquery<Long> matching = query.subquery(Long.class);
+		Root<EventListing> listing = matching.from(EventListing.class);
+		matching.select(listing.get(EVENT_ID)).where(builder.equal(listing.get(ORGANIZATION_ID), organizationId),
+				builder.like(listing.get(SEARCH_KEY), "%" + searchText + "%", LIKE_ESCAPE));
+		predicates.add(root.get(ID).in(matching));
+	}
+
+	private String escapeLike(String text) {
+		return text.replace(String.valueOf(LIKE_ESCAPE), LIKE_ESCAPE + String.valueOf(LIKE_ESCAPE))
+				.replace("%", LIKE_ESCAPE + "%").replace("_", LIKE_ESCAPE + "_");
+	}
+
+	private List<Predicate> prepareTimeParams(EventQueryRequest request, Long organizationId,
+			CriteriaBuilder builder, Root<Event> root, CriteriaQuery<?> query) {
+		List<Predicate> timePredicates = new ArrayList<>();
+		if (request.getStatusList().isEmpty()) {
+			return timePredicates;
 		}
+		// time status is materialized on the listing, no date math against now()
+		Subquery<Long> matching = query.subquery(Long.class);
+		Root<EventListing> listing = matching.from(EventListing.class);
+		matching.select(listing.get(EVENT_ID)).where(builder.equal(listing.get(ORGANIZATION_ID), organizationId),
+				listing.get(TIME_STATUS).in(request.getStatusList()));
+		timePredicates.add(root.get(ID).in(matching));
 		return timePredicates;
 	}
 }
@@ -0,0 +1,186 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.client.AuthExternalService;
+import com.xperexpo.organizationservice.client.FileExternalService;
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventIntervalDate;
+import com.xperexpo.organizationservice.entity.EventTenant;
+import com.xperexpo.organizationservice.entity.Organization;
+import com.xperexpo.organizationservice.entity.OrganizationOwner;
+import com.xperexpo.organizationservice.enums.EventColumn;
+import com.xperexpo.organizationservice.enums.EventStatus;
+import com.xperexpo.organizationservice.payload.EventDTO;
+import com.xperexpo.organizationservice.payload.EventQueryRequest;
+import com.xperexpo.organizationservice.payload.UserIdAndPermissionList;
+import com.xperexpo.organizationservice.service.EventService;
+import com.xperexpo.organizationservice.service.OrganizationTeamMemberService;
+import com.xperexpo.organizationservice.utils.TimeZoneRedisUtils;
+
+/**
+ * Counts the statements of the event read paths with Hibernate statistics.
+ * The second level cache is off so every read reaches the database: the event
+ * and the associations the converter reads have to come in one statement, for
+ * one event as for a list, and nothing may be fetched lazily afterwards.
+ */
+@SpringBootTest(properties = { "second-level-cache.statistics-enabled=true",
+		"spring.jpa.properties.hibernate.cache.use_second_level_cache=false" })
+class EventServiceStatementCountTest {
+
+	private static final String OWNER_ID = "statement-count-owner";
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@MockBean
+	private AuthExternalService authExternalService;
+
+	@MockBean
+	private FileExternalService fileExternalService;
+
+	@MockBean
+	private OrganizationTeamMemberService organizationTeamMemberService;
+
+	@MockBean
+	private TimeZoneRedisUtils timeZoneRedisUtils;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		when(timeZoneRedisUtils.getTimeZoneForRedis(anyString())).thenReturn("UTC");
+	}
+
+	@Test
+	void getEventOfTheOwnerIsOneStatement() {
+		when(organizationTeamMemberService.findActiveEventForTeamMember(anyString(), anyLong())).thenReturn(false);
+
+		assertGetEventIsOneStatement();
+	}
+
+	@Test
+	void getEventOfATeamMemberIsOneStatement() {
+		when(organizationTeamMemberService.findActiveEventForTeamMember(anyString(), anyLong())).thenReturn(true);
+
+		assertGetEventIsOneStatement();
+	}
+
+	@Test
+	void queryEventsIsOneStatementWhateverTheNumberOfEvents() {
+		assertQueryEventsIsOneStatement(1);
+		assertQueryEventsIsOneStatement(20);
+	}
+
+	private void assertGetEventIsOneStatement() {
+		Organization organization = saveOrganization();
+		Long eventId = saveEvents(organization, 1).get(0);
+
+		statistics.clear();
+		eventService.getEvent(eventId, organization.getId(), OWNER_ID);
+
+		// organization, owner, dates and tenant come with the event
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityFetchCount());
+	}
+
+	private void assertQueryEventsIsOneStatement(int eventCount) {
+		Organization organization = saveOrganization();
+		saveEvents(organization, eventCount);
+		stubPermissions(organization.getId());
+
+		EventQueryRequest request = new EventQueryRequest();
+		request.setSearch("");
+		request.setStatusList(new ArrayList<>());
+		request.setOrderColumn(EventColumn.TIME);
+		request.setDirection("ASC");
+
+		statistics.clear();
+		List<EventDTO> events = eventService.queryEvents("en", request, OWNER_ID, organization.getId());
+
+		assertEquals(eventCount, events.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityFetchCount());
+	}
+
+	private void stubPermissions(Long organizationId) {
+		UserIdAndPermissionList organizationPermissions = new UserIdAndPermissionList();
+		organizationPermissions.setEventId(organizationId);
+		when(authExternalService.findListPermissionEventRole(any())).thenReturn(List.of(organizationPermissions));
+	}
+
+	private Organization saveOrganization() {
+		return transactionTemplate.execute(status -> {
+			OrganizationOwner owner = new OrganizationOwner();
+			owner.setUserId(OWNER_ID);
+			entityManager.persist(owner);
+
+			Organization organization = new Organization();
+			organization.setOrganizationOwner(owner);
+			entityManager.persist(organization);
+			return organization;
+		});
+	}
+
+	private List<Long> saveEvents(Organization organization, int count) {
+		return transactionTemplate.execute(status -> {
+			List<Long> eventIds = new ArrayList<>();
+			LocalDateTime start = LocalDateTime.now().plusDays(1);
+			for (int i = 0; i < count; i++) {
+				EventIntervalDate eventIntervalDate = new EventIntervalDate();
+				eventIntervalDate.setGeneralStartDate(start.plusHours(i));
+				eventIntervalDate.setGeneralEndDate(start.plusDays(1).plusHours(i));
+				eventIntervalDate.setActiveStartDate(start.plusHours(i));
+				eventIntervalDate.setActiveEndDate(start.plusDays(1).plusHours(i));
+				entityManager.persist(eventIntervalDate);
+
+				EventTenant eventTenant = new EventTenant();
+				eventTenant.setActive(false);
+				entityManager.persist(eventTenant);
+
+				Event event = new Event();
+				event.setNameMainLang("statement count " + i);
+				event.setUrl("statement-count-" + organization.getId() + "-" + i);
+				event.setTimezone("UTC");
+				event.setActive(true);
+				event.setEventStatus(EventStatus.DRAFT);
+				event.setOrganization(organization);
+				event.setEventIntervalDate(eventIntervalDate);
+				event.setEventTenant(eventTenant);
+				entityManager.persist(event);
+				eventIds.add(event.getId());
+			}
+			return eventIds;
+		});
+	}
+}
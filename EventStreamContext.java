@@ -0,0 +1,22 @@
+package com.xperexpo.organizationservice.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * What an event stream needs from the caller that started it, collected
+ * before the stream starts so it can be written from any thread. The events
+ * and their permissions are read chunk by chunk while streaming.
+ */
+@Getter
+@AllArgsConstructor
+public class EventStreamContext {
+
+	private final EventQueryRequest request;
+
+	private final Long organizationId;
+
+	private final String userId;
+
+	private final String timeZone;
+}
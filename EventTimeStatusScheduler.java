@@ -0,0 +1,244 @@
+package com.xperexpo.organizationservice.scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.enums.EventTimeStatus;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+/**
+ * Keeps {@code EventListing.timeStatus} current. The upcoming start and end
+ * instants of the next {@value #HORIZON_HOURS} hours are kept in a priority
+ * queue and a single timer sleeps until the earliest one, so statuses flip when
+ * the boundary is crossed without polling the table. A set based sweep at
+ * startup and every hour repairs anything the queue missed, for example
+ * events written on another node.
+ */
+@Component
+public class EventTimeStatusScheduler {
+
+	private static final long HORIZON_HOURS = 2;
+	private static final long RETRY_DELAY_SECONDS = 60;
+	private static final String UPCOMING_TRANSITIONS_QUERY = "select l.eventId, l.generalStartDate, l.generalEndDate"
+			+ " from EventListing l where (l.generalStartDate > :now and l.generalStartDate <= :horizon)"
+			+ " or (l.generalEndDate > :now and l.generalEndDate <= :horizon)";
+	private static final String SWEEP_QUERY = "update EventListing l set l.timeStatus = :status where %s"
+			+ " and (l.timeStatus is null or l.timeStatus <> :status)";
+	private static final String COMPLETED_CONDITION = "l.generalEndDate <= :now";
+	private static final String ONGOING_CONDITION = "l.generalStartDate <= :now and l.generalEndDate > :now";
+	private static final String UPCOMING_CONDITION = "l.generalStartDate > :now";
+	// the dates are checked again, so a transition that was retried or outdated by a date change is harmless
+	private static final String APPLY_QUERY = "update EventListing l set l.timeStatus = :status"
+			+ " where l.eventId in :eventIds and %s and (l.timeStatus is null or l.timeStatus <> :status)";
+
+	private final PriorityQueue<Transition> transitions = new PriorityQueue<>();
+
+	private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "event-time-status");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private ScheduledFuture<?> wakeUp;
+
+	private LocalDateTime wakeUpAt;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	public static EventTimeStatus timeStatusAt(LocalDateTime generalStartDate, LocalDateTime generalEndDate,
+			LocalDateTime now) {
+		if (generalStartDate == null || generalEndDate == null) {
+			return null;
+		}
+		if (generalStartDate.isAfter(now)) {
+			return EventTimeStatus.UPCOMING;
+		}
+		if (generalEndDate.isAfter(now)) {
+			return EventTimeStatus.ONGOING;
+		}
+		return EventTimeStatus.COMPLETED;
+	}
+
+	/**
+	 * Queues the next boundaries of an event that was just written. Boundaries
+	 * beyond the horizon are picked up by the hourly reload.
+	 */
+	public void register(Long eventId, LocalDateTime generalStartDate, LocalDateTime generalEndDate) {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime horizon = now.plusHours(HORIZON_HOURS);
+		synchronized (transitions) {
+			transitions.removeIf(transition -> transition.eventId.equals(eventId));
+			offer(eventId, generalStartDate, EventTimeStatus.ONGOING, now, horizon);
+			offer(eventId, generalEndDate, EventTimeStatus.COMPLETED, now, horizon);
+			scheduleWakeUp();
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		refresh();
+	}
+
+	@Scheduled(fixedDelay = 3_600_000L, initialDelay = 3_600_000L)
+	public void refresh() {
+		try {
+			sweep();
+			reload();
+		} catch (Exception e) {
+			LogUtil.logError(EventTimeStatusScheduler.class, "event time status refresh failed", e);
+		}
+	}
+
+	@PreDestroy
+	public void stop() {
+		timer.shutdownNow();
+	}
+
+	private void sweep() {
+		LocalDateTime now = LocalDateTime.now();
+		Integer updated = transactionTemplate.execute(status -> sweep(EventTimeStatus.COMPLETED, COMPLETED_CONDITION, now)
+				+ sweep(EventTimeStatus.ONGOING, ONGOING_CONDITION, now)
+				+ sweep(EventTimeStatus.UPCOMING, UPCOMING_CONDITION, now));
+		if (updated != null && updated > 0) {
+			LogUtil.logInfo(EventTimeStatusScheduler.class, "event time status sweep updated " + updated + " events");
+		}
+	}
+
+	private int sweep(EventTimeStatus status, String condition, LocalDateTime now) {
+		return entityManager.createQuery(String.format(SWEEP_QUERY, condition)).setParameter("status", status)
+				.setParameter("now", now).executeUpdate();
+	}
+
+	private void reload() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime horizon = now.plusHours(HORIZON_HOURS);
+		List<Object[]> rows = entityManager.createQuery(UPCOMING_TRANSITIONS_QUERY, Object[].class)
+				.setParameter("now", now).setParameter("horizon", horizon).getResultList();
+		synchronized (transitions) {
+			transitions.clear();
+			for (Object[] row : rows) {
+				Long eventId = (Long) row[0];
+				offer(eventId, (LocalDateTime) row[1], EventTimeStatus.ONGOING, now, horizon);
+				offer(eventId, (LocalDateTime) row[2], EventTimeStatus.COMPLETED, now, horizon);
+			}
+			scheduleWakeUp();
+		}
+	}
+
+	private void offer(Long eventId, LocalDateTime at, EventTimeStatus status, LocalDateTime now,
+			LocalDateTime horizon) {
+		if (at != null && at.isAfter(now) && !at.isAfter(horizon)) {
+			transitions.offer(new Transition(at, eventId, status));
+		}
+	}
+
+	// caller holds the queue lock
+	private void scheduleWakeUp() {
+		Transition head = transitions.peek();
+		if (head == null || head.at.equals(wakeUpAt)) {
+			return;
+		}
+		if (wakeUp != null) {
+			wakeUp.cancel(false);
+		}
+		wakeUpAt = head.at;
+		long delayMillis = Math.max(0, Duration.between(LocalDateTime.now(), head.at).toMillis());
+		wakeUp = timer.schedule(this::applyDueTransitions, delayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private void applyDueTransitions() {
+		LocalDateTime now = LocalDateTime.now();
+		List<Long> ongoing = new ArrayList<>();
+		List<Long> completed = new ArrayList<>();
+		synchronized (transitions) {
+			while (!transitions.isEmpty() && !transitions.peek().at.isAfter(now)) {
+				Transition transition = transitions.poll();
+				(EventTimeStatus.ONGOING == transition.status ? ongoing : completed).add(transition.eventId);
+			}
+		}
+		boolean applied = false;
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				apply(ongoing, EventTimeStatus.ONGOING, ONGOING_CONDITION, now);
+				apply(completed, EventTimeStatus.COMPLETED, COMPLETED_CONDITION, now);
+			});
+			applied = true;
+		} catch (Exception e) {
+			LogUtil.logError(EventTimeStatusScheduler.class, "event time status transition failed, retrying "
+					+ (ongoing.size() + completed.size()) + " events in " + RETRY_DELAY_SECONDS + "s", e);
+		}
+		synchronized (transitions) {
+			if (!applied) {
+				LocalDateTime retryAt = LocalDateTime.now().plusSeconds(RETRY_DELAY_SECONDS);
+				ongoing.forEach(eventId -> transitions.offer(new Transition(retryAt, eventId, EventTimeStatus.ONGOING)));
+				completed.forEach(
+						eventId -> transitions.offer(new Transition(retryAt, eventId, EventTimeStatus.COMPLETED)));
+			}
+			wakeUpAt = null;
+			scheduleWakeUp();
+		}
+	}
+
+	private void apply(List<Long> eventIds, EventTimeStatus status, String condition, LocalDateTime now) {
+		if (!eventIds.isEmpty()) {
+			entityManager.createQuery(String.format(APPLY_QUERY, condition)).setParameter("status", status)
+					.setParameter("eventIds", eventIds).setParameter("now", now).executeUpdate();
+		}
+	}
+
+	private static final class Transition implements Comparable<Transition> {
+
+		private final LocalDateTime at;
+
+		private final Long eventId;
+
+		private final EventTimeStatus status;
+
+		private Transition(LocalDateTime at, Long eventId, EventTimeStatus status) {
+			this.at = at;
+			this.eventId = eventId;
+			this.status = status;
+		}
+
+		@Override
+		public int compareTo(Transition other) {
+			return at.compareTo(other.at);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Transition)) {
+				return false;
+			}
+			Transition transition = (Transition) other;
+			return at.equals(transition.at) && eventId.equals(transition.eventId) && status == transition.status;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(at, eventId, status);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RBloomFilter;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers url availability checks without the database. Every url stored in
+ * the events table, including the {@code -PASSIVE-} urls of deleted events, is
+ * kept in a Redis Bloom filter and in a Redis hash that maps the url to its
+ * event. A url the filter has never seen is free; otherwise the hash gives the
+ * exact answer. Both are shared by all nodes and loaded at startup. When Redis
+ * loses them (a flush or a failover without persistence) the checks fall back
+ * to the database until one node has loaded them again. The unique constraint
+ * on the url column stays the final arbiter on writes.
+ */
+@Component
+public class EventUrlRegistry {
+
+	private static final String BLOOM_FILTER = "event-url:bloom";
+	private static final String OWNERS = "event-url:owners";
+	private static final String READY = "event-url:ready";
+	private static final String LOAD_LOCK = "event-url:load-lock";
+	private static final long EXPECTED_URLS = 2_000_000L;
+	private static final double FALSE_POSITIVE_RATE = 0.001;
+	private static final int LOAD_PAGE_SIZE = 5000;
+	private static final long RELOAD_RETRY_MILLIS = 60_000L;
+	private static final String URL_PAGE_QUERY = "select e.id, e.url from Event e where e.id > :lastId order by e.id";
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private RBloomFilter<String> bloomFilter;
+
+	private RMap<String, Long> owners;
+
+	private RAtomicLong ready;
+
+	// earliest time this node tries another reload, so a lost registry starts one loader thread per minute
+	private final AtomicLong nextReloadAt = new AtomicLong();
+
+	@PostConstruct
+	public void init() {
+		bloomFilter = redissonClient.getBloomFilter(BLOOM_FILTER);
+		owners = redissonClient.getMap(OWNERS);
+		ready = redissonClient.getAtomicLong(READY);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void load() {
+		if (isReady()) {
+			return;
+		}
+		RLock lock = redissonClient.getLock(LOAD_LOCK);
+		if (!lock.tryLock()) {
+			// another node is loading
+			return;
+		}
+		try {
+			if (isReady()) {
+				return;
+			}
+			bloomFilter.tryInit(EXPECTED_URLS, FALSE_POSITIVE_RATE);
+			long loaded = 0;
+			Long lastId = 0L;
+			List<Object[]> rows;
+			do {
+				rows = entityManager.createQuery(URL_PAGE_QUERY, Object[].class)
+						.setParameter("lastId", lastId).setMaxResults(LOAD_PAGE_SIZE).getResultList();
+				Map<String, Long> page = new HashMap<>();
+				for (Object[] row : rows) {
+					lastId = (Long) row[0];
+					page.put((String) row[1], lastId);
+				}
+				owners.putAll(page);
+				for (String url : page.keySet()) {
+					bloomFilter.add(url);
+				}
+				loaded += page.size();
+				entityManager.clear();
+			} while (rows.size() == LOAD_PAGE_SIZE);
+			ready.set(1);
+			LogUtil.logInfo(EventUrlRegistry.class, "event url registry loaded " + loaded + " urls");
+		} catch (Exception e) {
+			LogUtil.logError(EventUrlRegistry.class, "event url registry could not be loaded", e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isReady() {
+		// asked every time, Redis may have lost the registry since the last check
+		return ready.get() == 1;
+	}
+
+	/**
+	 * Returns whether the url belongs to an event other than the given one, or
+	 * null when the registry is not loaded and the caller has to ask the
+	 * database.
+	 */
+	public Boolean isTaken(String url, Long eventId) {
+		if (!isReady()) {
+			reloadInBackground();
+			return null;
+		}
+		try {
+			if (!bloomFilter.contains(url)) {
+				return false;
+			}
+		} catch (IllegalStateException e) {
+			// the filter is gone while the ready flag survived
+			registryLost(e);
+			return null;
+		}
+		Long owner = owners.get(url);
+		return owner != null && !owner.equals(eventId);
+	}
+
+	public void register(String url, Long eventId) {
+		owners.fastPut(url, eventId);
+		try {
+			bloomFilter.add(url);
+		} catch (IllegalStateException e) {
+			// the reload reads the url back from the events table
+			registryLost(e);
+		}
+	}
+
+	public void unregister(String url) {
+		// the bloom filter cannot forget, the hash answers for urls that were released
+		owners.fastRemove(url);
+	}
+
+	private void registryLost(IllegalStateException e) {
+		LogUtil.logError(EventUrlRegistry.class, "event url bloom filter is missing, reloading", e);
+		ready.delete();
+		reloadInBackground();
+	}
+
+	private void reloadInBackground() {
+		long now = System.currentTimeMillis();
+		long reloadAt = nextReloadAt.get();
+		if (now < reloadAt || !nextReloadAt.compareAndSet(reloadAt, now + RELOAD_RETRY_MILLIS)) {
+			return;
+		}
+		// load() returns at once when another node holds the load lock
+		Thread thread = new Thread(this::load, "event-url-registry-load");
+		thread.setDaemon(true);
+		thread.start();
+	}
+}
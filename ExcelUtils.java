@@ -4,15 +4,23 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 
 public final class ExcelUtils {
 
+	public static final int STREAMING_ROW_WINDOW = 100;
+	public static final int COLUMN_WIDTH_SAMPLE_ROWS = 500;
+
+	private static final int MAX_COLUMN_WIDTH = 255 * 256;
+	private static final int COLUMN_WIDTH_PADDING = 2;
+
 	private ExcelUtils() {
 		// initlenmemesi constructor private yapıldı.
 	}
@@ -40,10 +48,18 @@ public final class ExcelUtils {
 		return sheet;
 	}
 
+	/**
+	 * Creates a new centered style on every call; callers writing many rows
+	 * should create the style once and use the {@link CellStyle} variant, a style
+	 * per row overflows the workbook style table.
+	 */
 	public static void setColumnWidthAndAlignment(Workbook workbook, Sheet sheet, Row row, int columnSize, int cellNumber,
 			boolean isAutoSize) {
-		XSSFCellStyle style = (XSSFCellStyle) workbook.createCellStyle();
-		style.setAlignment(HorizontalAlignment.CENTER);
+		setColumnWidthAndAlignment(createCenteredStyle(workbook), sheet, row, columnSize, cellNumber, isAutoSize);
+	}
+
+	public static void setColumnWidthAndAlignment(CellStyle style, Sheet sheet, Row row, int columnSize, int cellNumber,
+			boolean isAutoSize) {
 		for (int col = 0; col < cellNumber; col++) {
 			Cell cell = row.getCell(col);
 			cell.setCellStyle(style);
@@ -55,4 +71,43 @@ public final class ExcelUtils {
 			}
 		}
 	}
+
+	/**
+	 * Creates a streaming workbook that keeps only {@link #STREAMING_ROW_WINDOW}
+	 * rows in memory, older rows are flushed to a compressed temp file.
+	 */
+	public static SXSSFWorkbook createStreamingWorkbook() {
+		SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_ROW_WINDOW);
+		workbook.setCompressTempFiles(true);
+		return workbook;
+	}
+
+	/**
+	 * Adds a centered style to the workbook. Create it once per workbook and
+	 * reuse it for every row.
+	 */
+	public static CellStyle createCenteredStyle(Workbook workbook) {
+		CellStyle style = workbook.createCellStyle();
+		style.setAlignment(HorizontalAlignment.CENTER);
+		return style;
+	}
+
+	/**
+	 * Widens the sampled column lengths with the given row, used instead of
+	 * autosizing which rescans every row of the sheet.
+	 */
+	public static void sampleColumnWidths(int[] sampledLengths, List<String> values) {
+		for (int col = 0; col < values.size() && col < sampledLengths.length; col++) {
+			String value = values.get(col);
+			if (value != null && value.length() > sampledLengths[col]) {
+				sampledLengths[col] = value.length();
+			}
+		}
+	}
+
+	public static void applySampledColumnWidths(Sheet sheet, int[] sampledLengths) {
+		for (int col = 0; col < sampledLengths.length; col++) {
+			sheet.setColumnWidth(col, Math.min(MAX_COLUMN_WIDTH, (sampledLengths[col] + COLUMN_WIDTH_PADDING) * 256));
+		}
+	}
 }
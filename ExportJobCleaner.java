@@ -0,0 +1,27 @@
+package com.xperexpo.organizationservice.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.service.ExportJobService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+@Component
+public class ExportJobCleaner {
+
+	@Autowired
+	private ExportJobService exportJobService;
+
+	@Scheduled(fixedDelayString = "${export-job.cleanup-delay-ms:300000}")
+	public void purge() {
+		try {
+			int purged = exportJobService.purgeExpiredFiles();
+			if (purged > 0) {
+				LogUtil.logInfo(ExportJobCleaner.class, "purged " + purged + " expired export files");
+			}
+		} catch (Exception e) {
+			LogUtil.logError(ExportJobCleaner.class, "export job cleanup failed", e);
+		}
+	}
+}
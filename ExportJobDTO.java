@@ -0,0 +1,31 @@
+package com.xperexpo.organizationservice.payload;
+
+import java.time.LocalDateTime;
+
+import com.xperexpo.organizationservice.enums.ExportJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+
+	private String jobId;
+
+	private ExportJobStatus status;
+
+	// rows written so far, the total is only known once the job completes
+	private long processedRows;
+
+	// null until the job completes
+	private Long fileSize;
+
+	private LocalDateTime createdAt;
+
+	private LocalDateTime finishedAt;
+}
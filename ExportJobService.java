@@ -0,0 +1,17 @@
+package com.xperexpo.organizationservice.service;
+
+import org.springframework.core.io.Resource;
+
+import com.xperexpo.organizationservice.payload.EventQueryRequest;
+import com.xperexpo.organizationservice.payload.ExportJobDTO;
+
+public interface ExportJobService {
+
+	ExportJobDTO submitEventExport(String i18n, EventQueryRequest request, String userId, Long organizationId);
+
+	ExportJobDTO getJob(String jobId, Long organizationId);
+
+	Resource getJobFile(String jobId, Long organizationId);
+
+	int purgeExpiredFiles();
+}
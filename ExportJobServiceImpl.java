@@ -0,0 +1,281 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.redisson.api.RMap;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.xperexpo.organizationservice.enums.ExportJobStatus;
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+import com.xperexpo.organizationservice.payload.EventQueryRequest;
+import com.xperexpo.organizationservice.payload.ExportJobDTO;
+import com.xperexpo.organizationservice.service.EventExportService;
+import com.xperexpo.organizationservice.service.EventService;
+import com.xperexpo.organizationservice.service.ExportJobService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+/**
+ * Runs spreadsheet exports off the request thread. Jobs are executed by a
+ * bounded pool on the node that accepted them and each organization may only
+ * run a limited number at once across all nodes. The job state is kept in
+ * Redis, so any node can answer a poll, and expires after the retention
+ * period. The finished file is written to {@code export-job.directory}; when
+ * that is a volume shared by the nodes any node serves the download, with a
+ * local directory only the node that ran the job does. Files older than the
+ * retention period are removed by {@link #purgeExpiredFiles()}.
+ */
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+	private static final String JOB_KEY_PREFIX = "export-job:";
+	private static final String SLOTS_KEY_PREFIX = "export-job:slots:";
+	private static final String FILE_SUFFIX = ".xlsx";
+	// written under this name and renamed once complete, so a download never sees a partial file
+	private static final String PARTIAL_FILE_SUFFIX = ".xlsx.part";
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	private static final String ORGANIZATION_ID = "organizationId";
+	private static final String STATUS = "status";
+	private static final String PROCESSED_ROWS = "processedRows";
+	private static final String FILE_SIZE = "fileSize";
+	private static final String CREATED_AT = "createdAt";
+	private static final String FINISHED_AT = "finishedAt";
+
+	@Value("${export-job.workers:2}")
+	private int workers;
+
+	@Value("${export-job.queue-capacity:50}")
+	private int queueCapacity;
+
+	@Value("${export-job.max-per-organization:2}")
+	private int maxJobsPerOrganization;
+
+	@Value("${export-job.retention-minutes:60}")
+	private long retentionMinutes;
+
+	@Value("${export-job.max-runtime-minutes:30}")
+	private long maxRuntimeMinutes;
+
+	@Value("${export-job.directory:${java.io.tmpdir}/event-exports}")
+	private String directory;
+
+	@Autowired
+	private EventExportService eventExportService;
+
+	@Autowired
+	private EventService eventService;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	private ThreadPoolExecutor executor;
+
+	private Path fileDirectory;
+
+	@PostConstruct
+	public void init() throws IOException {
+		fileDirectory = Files.createDirectories(Paths.get(directory));
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		// interrupted jobs are marked as failed by their worker
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Only queues the job: the matching events and the permissions of the user
+	 * are collected by the worker, so the request returns at once whatever the
+	 * number of events.
+	 */
+	@Override
+	public ExportJobDTO submitEventExport(String i18n, EventQueryRequest request, String userId, Long organizationId) {
+		return submit(organizationId,
+				(outputStream, progressListener) -> eventExportService.exportEvents(
+						eventService.prepareEventStream(request, userId, organizationId), outputStream,
+						progressListener));
+	}
+
+	@Override
+	public ExportJobDTO getJob(String jobId, Long organizationId) {
+		return toDto(jobId, findJob(jobId, organizationId));
+	}
+
+	@Override
+	public Resource getJobFile(String jobId, Long organizationId) {
+		Map<String, String> job = findJob(jobId, organizationId);
+		ExportJobStatus status = ExportJobStatus.valueOf(job.get(STATUS));
+		if (status != ExportJobStatus.COMPLETED) {
+			throw new ExpoRuntimeException("XE_16", "export job is not completed " + status);
+		}
+		Path file = fileDirectory.resolve(jobId + FILE_SUFFIX);
+		if (!Files.isReadable(file)) {
+			throw new ExpoRuntimeException("XE_16", "export file not found " + jobId);
+		}
+		return new FileSystemResource(file);
+	}
+
+	/**
+	 * Deletes the completed files that are older than the retention period and
+	 * the partial files of jobs that died while writing, which are only taken
+	 * for dead once the maximum runtime has passed as well.
+	 */
+	@Override
+	public int purgeExpiredFiles() {
+		Instant now = Instant.now();
+		FileTime fileExpiry = FileTime.from(now.minus(retentionMinutes, ChronoUnit.MINUTES));
+		FileTime partialFileExpiry = FileTime.from(now.minus(maxRuntimeMinutes + retentionMinutes, ChronoUnit.MINUTES));
+		int purged = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(fileDirectory)) {
+			for (Path file : files) {
+				FileTime expiry = file.getFileName().toString().endsWith(PARTIAL_FILE_SUFFIX) ? partialFileExpiry
+						: fileExpiry;
+				if (Files.getLastModifiedTime(file).compareTo(expiry) < 0 && Files.deleteIfExists(file)) {
+					purged++;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return purged;
+	}
+
+	private ExportJobDTO submit(Long organizationId, ExportTask task) {
+		RPermitExpirableSemaphore slots = redissonClient.getPermitExpirableSemaphore(SLOTS_KEY_PREFIX + organizationId);
+		slots.trySetPermits(maxJobsPerOrganization);
+		String permitId;
+		try {
+			// the permit of a node that dies during an export is freed by the lease
+			permitId = slots.tryAcquire(0, maxRuntimeMinutes, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExpoRuntimeException("XE_16", "export job could not be submitted");
+		}
+		if (permitId == null) {
+			throw new ExpoRuntimeException("XE_16", "too many running exports for organization " + organizationId);
+		}
+		// organizations that stop exporting leave no slots behind
+		slots.expire(maxRuntimeMinutes + retentionMinutes, TimeUnit.MINUTES);
+
+		String jobId = UUID.randomUUID().toString();
+		RMap<String, String> job = jobMap(jobId);
+		Map<String, String> state = new HashMap<>();
+		state.put(ORGANIZATION_ID, organizationId.toString());
+		state.put(STATUS, ExportJobStatus.QUEUED.name());
+		state.put(PROCESSED_ROWS, "0");
+		state.put(CREATED_AT, LocalDateTime.now().toString());
+		job.putAll(state);
+		job.expire(maxRuntimeMinutes + retentionMinutes, TimeUnit.MINUTES);
+		try {
+			executor.execute(() -> run(jobId, job, task, slots, permitId));
+		} catch (RejectedExecutionException e) {
+			job.delete();
+			slots.tryRelease(permitId);
+			throw new ExpoRuntimeException("XE_16", "export queue is full");
+		}
+		return toDto(jobId, state);
+	}
+
+	private void run(String jobId, RMap<String, String> job, ExportTask task, RPermitExpirableSemaphore slots,
+			String permitId) {
+		long startTime = System.nanoTime();
+		job.fastPut(STATUS, ExportJobStatus.RUNNING.name());
+		Path partialFile = fileDirectory.resolve(jobId + PARTIAL_FILE_SUFFIX);
+		Map<String, String> result = new HashMap<>();
+		try {
+			try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(partialFile),
+					WRITE_BUFFER_SIZE)) {
+				task.write(outputStream, rows -> job.fastPutAsync(PROCESSED_ROWS, String.valueOf(rows)));
+			}
+			Path file = Files.move(partialFile, fileDirectory.resolve(jobId + FILE_SUFFIX),
+					StandardCopyOption.ATOMIC_MOVE);
+			result.put(FILE_SIZE, String.valueOf(Files.size(file)));
+			result.put(STATUS, ExportJobStatus.COMPLETED.name());
+			LogUtil.logInfo(ExportJobServiceImpl.class, "export job " + jobId + " completed, took "
+					+ Duration.ofNanos(System.nanoTime() - startTime).toMillis() + " ms");
+		} catch (Exception e) {
+			LogUtil.logError(ExportJobServiceImpl.class, "export job " + jobId + " failed", e);
+			deleteQuietly(partialFile);
+			result.put(STATUS, ExportJobStatus.FAILED.name());
+		} finally {
+			result.put(FINISHED_AT, LocalDateTime.now().toString());
+			job.putAll(result);
+			job.expire(retentionMinutes, TimeUnit.MINUTES);
+			slots.tryRelease(permitId);
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			LogUtil.logError(ExportJobServiceImpl.class, "export file could not be deleted " + file, e);
+		}
+	}
+
+	private Map<String, String> findJob(String jobId, Long organizationId) {
+		Map<String, String> job = jobMap(jobId).readAllMap();
+		// jobs of other organizations are reported as missing
+		if (job.isEmpty() || !organizationId.toString().equals(job.get(ORGANIZATION_ID))) {
+			throw new ExpoRuntimeException("XE_16", "export job not found " + jobId);
+		}
+		return job;
+	}
+
+	private RMap<String, String> jobMap(String jobId) {
+		return redissonClient.getMap(JOB_KEY_PREFIX + jobId, StringCodec.INSTANCE);
+	}
+
+	private static ExportJobDTO toDto(String jobId, Map<String, String> job) {
+		String fileSize = job.get(FILE_SIZE);
+		String finishedAt = job.get(FINISHED_AT);
+		return new ExportJobDTO(jobId, ExportJobStatus.valueOf(job.get(STATUS)), Long.parseLong(job.get(PROCESSED_ROWS)),
+				fileSize == null ? null : Long.valueOf(fileSize), LocalDateTime.parse(job.get(CREATED_AT)),
+				finishedAt == null ? null : LocalDateTime.parse(finishedAt));
+	}
+
+	@FunctionalInterface
+	private interface ExportTask {
+
+		void write(OutputStream outputStream, LongConsumer progressListener) throws IOException;
+	}
+}
@@ -0,0 +1,13 @@
+package com.xperexpo.organizationservice.enums;
+
+public enum ExportJobStatus {
+
+	QUEUED,
+
+	RUNNING,
+
+	COMPLETED,
+
+	FAILED
+
+}
@@ -0,0 +1,26 @@
+package com.xperexpo.organizationservice.config;
+
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JDBC batching for writes that insert many rows at once, such as the default
+ * data seeded for a new event. Inserts and updates are ordered by entity so
+ * that statements for the same table end up in the same batch.
+ */
+@Configuration
+public class HibernateBatchConfig implements HibernatePropertiesCustomizer {
+
+	private static final int JDBC_BATCH_SIZE = 50;
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, JDBC_BATCH_SIZE);
+		hibernateProperties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+		hibernateProperties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+		hibernateProperties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+	}
+}
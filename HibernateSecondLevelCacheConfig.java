@@ -0,0 +1,59 @@
+package com.xperexpo.organizationservice.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.EventIntervalDate;
+import com.xperexpo.organizationservice.entity.EventTenant;
+import com.xperexpo.organizationservice.entity.Organization;
+import com.xperexpo.organizationservice.entity.OrganizationOwner;
+
+/**
+ * Redis backed second level cache for the entities that are read on almost
+ * every request. Entries are read-write cached: writes through the session
+ * update the region and bulk JPQL updates evict it, so event writes never serve
+ * stale rows. The owner is cached with the organization because every ownership
+ * check reads it. Hibernate statistics, which feed
+ * {@code SecondLevelCacheStatisticsReporter}, cost a counter update per
+ * operation and are only collected when
+ * {@code second-level-cache.statistics-enabled} is set.
+ */
+@Configuration
+public class HibernateSecondLevelCacheConfig implements HibernatePropertiesCustomizer {
+
+	private static final List<Class<?>> CACHED_ENTITIES = List.of(Event.class, EventIntervalDate.class,
+			EventTenant.class, Organization.class, OrganizationOwner.class);
+	private static final String READ_WRITE = "read-write";
+	private static final String ENTITY_TIME_TO_LIVE = "hibernate.cache.redisson.entity.expiration.time_to_live";
+	private static final String ENTITY_MAX_ENTRIES = "hibernate.cache.redisson.entity.eviction.max_entries";
+	private static final long ONE_HOUR_MILLIS = 3_600_000L;
+	private static final int MAX_ENTRIES = 100_000;
+
+	@Value("${second-level-cache.statistics-enabled:false}")
+	private boolean statisticsEnabled;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+		hibernateProperties.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY,
+				new SharedRedissonRegionFactory(redissonClient));
+		hibernateProperties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, statisticsEnabled);
+		hibernateProperties.putIfAbsent(ENTITY_TIME_TO_LIVE, ONE_HOUR_MILLIS);
+		hibernateProperties.putIfAbsent(ENTITY_MAX_ENTRIES, MAX_ENTRIES);
+		for (Class<?> entity : CACHED_ENTITIES) {
+			hibernateProperties.putIfAbsent(AvailableSettings.CLASS_CACHE_PREFIX + "." + entity.getName(),
+					READ_WRITE);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small in-process cache bounded by size (least recently used entry is evicted
+ * first) and by a time to live per entry. Meant to sit in front of Redis for
+ * values that are read on almost every request and change rarely.
+ */
+public class LocalTtlCache<K, V> {
+
+	private final int maxSize;
+
+	private final long ttlNanos;
+
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	public LocalTtlCache(int maxSize, long ttl, TimeUnit unit) {
+		this.maxSize = maxSize;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				return size() > LocalTtlCache.this.maxSize;
+			}
+		};
+	}
+
+	public V get(K key) {
+		synchronized (entries) {
+			Entry<V> entry = entries.get(key);
+			if (entry == null) {
+				misses.increment();
+				return null;
+			}
+			if (entry.expiresAt - System.nanoTime() <= 0) {
+				entries.remove(key);
+				misses.increment();
+				return null;
+			}
+			hits.increment();
+			return entry.value;
+		}
+	}
+
+	public void put(K key, V value) {
+		synchronized (entries) {
+			entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+		}
+	}
+
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
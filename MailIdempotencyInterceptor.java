@@ -0,0 +1,41 @@
+package com.xperexpo.organizationservice.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * Adds an {@value #HEADER} header to the Feign calls made while an outbox mail
+ * is being sent, so the mail service can drop a mail it already received when
+ * the outbox retries it after a timeout or a crash.
+ */
+@Component
+public class MailIdempotencyInterceptor implements RequestInterceptor {
+
+	public static final String HEADER = "Idempotency-Key";
+
+	private static final ThreadLocal<String> CURRENT_KEY = new ThreadLocal<>();
+
+	public static void runWithKey(String idempotencyKey, Runnable action) {
+		CURRENT_KEY.set(idempotencyKey);
+		try {
+			action.run();
+		} finally {
+			CURRENT_KEY.remove();
+		}
+	}
+
+	@Override
+	public void apply(RequestTemplate template) {
+		String idempotencyKey = CURRENT_KEY.get();
+		if (idempotencyKey == null) {
+			return;
+		}
+		// one outbox mail can fan out to several recipients, their bodies tell the calls apart
+		byte[] body = template.body();
+		template.header(HEADER,
+				body == null ? idempotencyKey : idempotencyKey + ":" + DigestUtils.md5DigestAsHex(body));
+	}
+}
@@ -0,0 +1,74 @@
+package com.xperexpo.organizationservice.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import com.xperexpo.organizationservice.enums.MailOutboxStatus;
+import com.xperexpo.organizationservice.enums.MailOutboxType;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A mail that has to be sent because of an event write. Rows are inserted in
+ * the same transaction as the write and sent later by the outbox dispatcher.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "mail_outbox", indexes = {
+		@Index(name = "ix_mail_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+		@Index(name = "ix_mail_outbox_idempotency_key", columnList = "idempotency_key") })
+public class MailOutbox {
+
+	// pooled sequence, identity ids would keep Hibernate from batching the inserts
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_outbox_seq")
+	@SequenceGenerator(name = "mail_outbox_seq", sequenceName = "mail_outbox_seq", allocationSize = 50)
+	private Long id;
+
+	// type, event and recipient; repeats for mails of the same kind, the id tells the sends apart
+	@Column(name = "idempotency_key", nullable = false, length = 100)
+	private String idempotencyKey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 32)
+	private MailOutboxType type;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 16)
+	private MailOutboxStatus status;
+
+	@Column(name = "event_id", nullable = false)
+	private Long eventId;
+
+	@Column(name = "user_id")
+	private String userId;
+
+	private Boolean publish;
+
+	private int attempts;
+
+	// due time while pending, end of the claim while sending
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "sent_at")
+	private LocalDateTime sentAt;
+
+	@Column(name = "last_error", length = 1000)
+	private String lastError;
+}
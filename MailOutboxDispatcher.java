@@ -0,0 +1,31 @@
+package com.xperexpo.organizationservice.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.service.MailOutboxService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+@Component
+public class MailOutboxDispatcher {
+
+	private static final int MAX_BATCHES_PER_RUN = 50;
+
+	@Autowired
+	private MailOutboxService mailOutboxService;
+
+	@Scheduled(fixedDelayString = "${mail-outbox.dispatch-delay-ms:5000}")
+	public void dispatch() {
+		try {
+			// drain until nothing is due, bounded so one run cannot starve the scheduler
+			for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+				if (mailOutboxService.dispatchPending() == 0) {
+					return;
+				}
+			}
+		} catch (Exception e) {
+			LogUtil.logError(MailOutboxDispatcher.class, "mail outbox dispatch failed", e);
+		}
+	}
+}
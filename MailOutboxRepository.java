@@ -0,0 +1,30 @@
+package com.xperexpo.organizationservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.xperexpo.organizationservice.entity.MailOutbox;
+import com.xperexpo.organizationservice.enums.MailOutboxStatus;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+	// lock timeout -2 is SKIP LOCKED, so several nodes can drain the outbox side by side
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+	@Query("select m from MailOutbox m where m.status in :statuses and m.nextAttemptAt <= :now order by m.id")
+	List<MailOutbox> findDispatchable(@Param("statuses") Collection<MailOutboxStatus> statuses,
+			@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.xperexpo.organizationservice.service;
+
+public interface MailOutboxService {
+
+	void enqueueChangePublishStatus(Long eventId, String userId, boolean isPublish);
+
+	void enqueueActiveEventEdit(Long eventId, String userId);
+
+	void enqueueSponsorEventPublished(Long eventId);
+
+	int dispatchPending();
+}
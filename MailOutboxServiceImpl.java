@@ -0,0 +1,232 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.config.MailIdempotencyInterceptor;
+import com.xperexpo.organizationservice.entity.Event;
+import com.xperexpo.organizationservice.entity.MailOutbox;
+import com.xperexpo.organizationservice.enums.EventLocationType;
+import com.xperexpo.organizationservice.enums.MailOutboxStatus;
+import com.xperexpo.organizationservice.enums.MailOutboxType;
+import com.xperexpo.organizationservice.payload.ActiveEventEditPayload;
+import com.xperexpo.organizationservice.payload.ChangePublishEventMailPayload;
+import com.xperexpo.organizationservice.repository.EventRepository;
+import com.xperexpo.organizationservice.repository.MailOutboxRepository;
+import com.xperexpo.organizationservice.service.MailOutboxService;
+import com.xperexpo.organizationservice.service.MailSendService;
+import com.xperexpo.organizationservice.service.SponsorService;
+import com.xperexpo.organizationservice.utils.LogUtil;
+import com.xperexpo.organizationservice.utils.TimeUtils;
+import com.xperexpo.organizationservice.utils.UserContext;
+import com.xperexpo.organizationservice.utils.UserContextProvider;
+import com.xperexpo.organizationservice.utils.Utils;
+
+@Service
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+	private static final int BATCH_SIZE = 20;
+	private static final int MAX_ATTEMPTS = 8;
+	private static final long BASE_BACKOFF_SECONDS = 30;
+	private static final int MAX_ERROR_LENGTH = 1000;
+	private static final long CLAIM_SECONDS = 300;
+	private static final String ALL_SPONSORS = "sponsors";
+	private static final List<MailOutboxStatus> DISPATCHABLE_STATUSES = List.of(MailOutboxStatus.PENDING,
+			MailOutboxStatus.SENDING);
+
+	@Autowired
+	private MailOutboxRepository mailOutboxRepository;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Autowired
+	private MailSendService mailSendService;
+
+	@Autowired
+	private SponsorService sponsorService;
+
+	@Autowired
+	private UserContextProvider userContextProvider;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Override
+	public void enqueueChangePublishStatus(Long eventId, String userId, boolean isPublish) {
+		MailOutbox mail = newMail(MailOutboxType.EVENT_PUBLISH_STATUS, eventId, userId);
+		mail.setPublish(isPublish);
+		mailOutboxRepository.save(mail);
+	}
+
+	@Override
+	public void enqueueActiveEventEdit(Long eventId, String userId) {
+		mailOutboxRepository.save(newMail(MailOutboxType.ACTIVE_EVENT_EDIT, eventId, userId));
+	}
+
+	@Override
+	public void enqueueSponsorEventPublished(Long eventId) {
+		mailOutboxRepository.save(newMail(MailOutboxType.SPONSOR_EVENT_PUBLISHED, eventId, null));
+	}
+
+	/**
+	 * Sends one batch of due mails. The rows are claimed in a short transaction
+	 * that skips rows locked by other nodes, then every mail is sent without a
+	 * transaction and its outcome written in a transaction of its own, so a
+	 * failure only affects that mail. A claim that is not settled within
+	 * {@value #CLAIM_SECONDS} seconds (the node died while sending) is picked up
+	 * again; the mail service recognizes the repeat by its idempotency key. A
+	 * mail that failed is retried with exponential backoff and given up after
+	 * {@value #MAX_ATTEMPTS} attempts.
+	 */
+	@Override
+	public int dispatchPending() {
+		List<MailOutbox> mails = transactionTemplate.execute(status -> claim(LocalDateTime.now()));
+		// mails of one batch often share users, their profile data is looked up once
+		UserContext userContext = userContextProvider.newContext();
+
+		for (MailOutbox mail : mails) {
+			try {
+				MailIdempotencyInterceptor.runWithKey(mail.getIdempotencyKey() + ":" + mail.getId(),
+						prepare(mail, userContext));
+				transactionTemplate.executeWithoutResult(status -> markSent(mail.getId()));
+			} catch (Exception e) {
+				LogUtil.logError(MailOutboxServiceImpl.class, "outbox mail could not be sent "
+						+ mail.getIdempotencyKey() + " attempt: " + (mail.getAttempts() + 1), e);
+				transactionTemplate.executeWithoutResult(status -> markFailed(mail.getId(), e));
+			}
+		}
+		return mails.size();
+	}
+
+	private List<MailOutbox> claim(LocalDateTime now) {
+		List<MailOutbox> mails = mailOutboxRepository.findDispatchable(DISPATCHABLE_STATUSES, now,
+				PageRequest.of(0, BATCH_SIZE));
+		for (MailOutbox mail : mails) {
+			mail.setStatus(MailOutboxStatus.SENDING);
+			mail.setNextAttemptAt(now.plusSeconds(CLAIM_SECONDS));
+		}
+		return mailOutboxRepository.saveAll(mails);
+	}
+
+	private void markSent(Long id) {
+		mailOutboxRepository.findById(id).ifPresent(mail -> {
+			mail.setStatus(MailOutboxStatus.SENT);
+			mail.setSentAt(LocalDateTime.now());
+		});
+	}
+
+	private void markFailed(Long id, Exception e) {
+		mailOutboxRepository.findById(id).ifPresent(mail -> {
+			int attempts = mail.getAttempts() + 1;
+			mail.setAttempts(attempts);
+			mail.setLastError(truncate(e.getMessage()));
+			if (attempts >= MAX_ATTEMPTS) {
+				mail.setStatus(MailOutboxStatus.FAILED);
+			} else {
+				mail.setStatus(MailOutboxStatus.PENDING);
+				mail.setNextAttemptAt(LocalDateTime.now().plusSeconds(BASE_BACKOFF_SECONDS << (attempts - 1)));
+			}
+		});
+	}
+
+	/**
+	 * Reads what the mail needs in a short transaction and returns the
+	 * send, which then runs without holding a connection. The sponsor fan-out
+	 * gets the event loaded here like the other sends.
+	 */
+	private Runnable prepare(MailOutbox mail, UserContext userContext) {
+		return transactionTemplate.execute(status -> {
+			Optional<Event> optEvent = eventRepository.findById(mail.getEventId());
+			if (optEvent.isEmpty()) {
+				logEventNotFound(mail);
+				return () -> {
+				};
+			}
+			Event event = optEvent.get();
+
+			switch (mail.getType()) {
+			case EVENT_PUBLISH_STATUS:
+				ChangePublishEventMailPayload changePublishEventMailPayload = getChangePublishEventMailPayload(event,
+						Boolean.TRUE.equals(mail.getPublish()), mail.getUserId(), userContext);
+				return () -> mailSendService.changePublicStatusEvent(changePublishEventMailPayload);
+			case ACTIVE_EVENT_EDIT:
+				ActiveEventEditPayload activeEventEditPayload = new ActiveEventEditPayload();
+				activeEventEditPayload.setLanguage(userContext.getLanguageCode(mail.getUserId()));
+				activeEventEditPayload.setEmail(event.getOrganization().getEmail());
+				return () -> mailSendService.activeEventEdit(activeEventEditPayload);
+			case SPONSOR_EVENT_PUBLISHED:
+				return () -> sponsorService.sendMailsWhenPublished(event);
+			default:
+				throw new IllegalStateException("unknown outbox mail type " + mail.getType());
+			}
+		});
+	}
+
+	private void logEventNotFound(MailOutbox mail) {
+		LogUtil.logInfo(MailOutboxServiceImpl.class, "outbox mail skipped, event not found " + mail.getIdempotencyKey());
+	}
+
+	private ChangePublishEventMailPayload getChangePublishEventMailPayload(Event event, boolean isPublish,
+			String publishUserId, UserContext userContext) {
+		String userId = event.getOrganization().getOrganizationOwner().getUserId();
+		String nameAndSurname = userContext.getDisplayName(userId);
+
+		String languageCode = userContext.getLanguageCode(publishUserId);
+
+		String eventLocationType = EventLocationType.getValueByLang(event.getEventLocationType().getCode(),
+				languageCode.toUpperCase());
+
+		String mainNameLanguage = "";
+		if (!Utils.isNullOrEmpty(event.getNameSecondLang())) {
+			mainNameLanguage = languageCode.equalsIgnoreCase(event.getMainLanguage()) ? event.getNameMainLang()
+					: event.getNameSecondLang();
+		} else {
+			mainNameLanguage = event.getNameMainLang();
+		}
+		String timeZoneForRedis = userContext.getTimeZone(publishUserId);
+		return ChangePublishEventMailPayload.builder().eventName(mainNameLanguage).fuarName(event.getNameMainLang())
+				.fuarType(eventLocationType).organizationName(nameAndSurname).email(event.getOrganization().getEmail())
+				.organizationStartDate(
+						TimeUtils.getDateTimeZone(event.getEventIntervalDate().getGeneralStartDate(), timeZoneForRedis))
+				.organizationEndDate(
+						TimeUtils.getDateTimeZone(event.getEventIntervalDate().getGeneralEndDate(), timeZoneForRedis))
+				.language(languageCode).isPublish(isPublish).build();
+	}
+
+	private MailOutbox newMail(MailOutboxType type, Long eventId, String userId) {
+		LocalDateTime now = LocalDateTime.now();
+		MailOutbox mail = new MailOutbox();
+		mail.setIdempotencyKey(idempotencyKey(type, eventId, userId));
+		mail.setType(type);
+		mail.setStatus(MailOutboxStatus.PENDING);
+		mail.setEventId(eventId);
+		mail.setUserId(userId);
+		mail.setCreatedAt(now);
+		mail.setNextAttemptAt(now);
+		return mail;
+	}
+
+	/**
+	 * Type, event and recipient of the mail. The publish and edit mails go to the
+	 * organization of the event in the language of the user who made the change,
+	 * the sponsor mail goes to every sponsor of the event.
+	 */
+	private String idempotencyKey(MailOutboxType type, Long eventId, String userId) {
+		String recipient = MailOutboxType.SPONSOR_EVENT_PUBLISHED.equals(type) ? ALL_SPONSORS : userId;
+		return type.name() + ":" + eventId + ":" + recipient;
+	}
+
+	private String truncate(String message) {
+		if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+			return message;
+		}
+		return message.substring(0, MAX_ERROR_LENGTH);
+	}
+}
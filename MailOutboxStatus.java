@@ -0,0 +1,13 @@
+package com.xperexpo.organizationservice.enums;
+
+public enum MailOutboxStatus {
+
+	PENDING,
+
+	SENDING,
+
+	SENT,
+
+	FAILED
+
+}
@@ -0,0 +1,11 @@
+package com.xperexpo.organizationservice.enums;
+
+public enum MailOutboxType {
+
+	EVENT_PUBLISH_STATUS,
+
+	ACTIVE_EVENT_EDIT,
+
+	SPONSOR_EVENT_PUBLISHED
+
+}
@@ -0,0 +1,53 @@
+package com.xperexpo.organizationservice.config;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.xperexpo.organizationservice.utils.UserPermissionUtils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the hit and miss counters of the user permission cache through
+ * Micrometer, so they show up under {@code /actuator/metrics} and in the
+ * scraped metrics next to the other caches.
+ */
+@Configuration
+public class PermissionCacheMetricsConfig {
+
+	private static final String METRIC_PREFIX = "user.permission.cache";
+
+	@Autowired
+	private UserPermissionUtils userPermissionUtils;
+
+	@Bean
+	public MeterBinder userPermissionCacheMetrics() {
+		return registry -> {
+			counter(registry, "near", "hit", "nearCacheHits");
+			counter(registry, "near", "miss", "nearCacheMisses");
+			counter(registry, "redis", "hit", "redisHits");
+			counter(registry, "redis", "miss", "redisMisses");
+			Gauge.builder(METRIC_PREFIX + ".size", userPermissionUtils, statistic("nearCacheSize"))
+					.tag("layer", "near")
+					.description("entries in the near cache of this node")
+					.register(registry);
+		};
+	}
+
+	private void counter(MeterRegistry registry, String layer, String result, String statisticName) {
+		FunctionCounter.builder(METRIC_PREFIX + ".gets", userPermissionUtils, statistic(statisticName))
+				.tag("layer", layer)
+				.tag("result", result)
+				.register(registry);
+	}
+
+	private static ToDoubleFunction<UserPermissionUtils> statistic(String statisticName) {
+		return utils -> utils.getCacheStatistics().getOrDefault(statisticName, 0L);
+	}
+}
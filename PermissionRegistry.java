@@ -0,0 +1,155 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+
+/**
+ * Interns permission names into small integer ids shared by every node.
+ * Cached permission sets store these ids instead of the full names. The
+ * mapping lives in the {@code permission_registry} table, whose ids come from
+ * an identity column and are never reused, so a name keeps its id for good and
+ * the local copies on each node never have to be revalidated.
+ */
+@Component
+public class PermissionRegistry {
+
+	public static final int UNKNOWN_ID = -1;
+
+	private static final String PERMISSION_REGISTRY_TABLE = "permission_registry";
+	private static final String FIND_ID_SQL = "select id from permission_registry where name = :name";
+	private static final String FIND_NAME_SQL = "select name from permission_registry where id = :id";
+	private static final String REGISTER_SQL = "insert into permission_registry (name) values (:name)"
+			+ " on conflict (name) do nothing";
+	private static final int UNKNOWN_NAMES_SIZE = 1000;
+	private static final long UNKNOWN_NAMES_TTL_SECONDS = 60;
+
+	private final Map<String, Integer> localIds = new ConcurrentHashMap<>();
+
+	private final Map<Integer, String> localNames = new ConcurrentHashMap<>();
+
+	// names checked but never registered; another node may register one later, so they expire
+	private final LocalTtlCache<String, Boolean> unknownNames = new LocalTtlCache<>(UNKNOWN_NAMES_SIZE,
+			UNKNOWN_NAMES_TTL_SECONDS, TimeUnit.SECONDS);
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate registerTransaction;
+
+	@PostConstruct
+	public void init() {
+		// a registration must not roll back with the request that triggered it
+		registerTransaction = new TransactionTemplate(transactionManager);
+		registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	public int idOf(String permission) {
+		Integer id = localIds.get(permission);
+		if (id == null) {
+			id = findStoredId(permission);
+			if (id == null) {
+				id = register(permission);
+			}
+			remember(permission, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Read-only variant of {@link #idOf} for authorization checks: a name that
+	 * was never registered is held by nobody, since every held permission is
+	 * registered when its set is compiled, so it is answered with
+	 * {@link #UNKNOWN_ID} instead of being added to the registry.
+	 */
+	public int findId(String permission) {
+		Integer id = localIds.get(permission);
+		if (id == null) {
+			if (unknownNames.get(permission) != null) {
+				return UNKNOWN_ID;
+			}
+			id = findStoredId(permission);
+			if (id == null) {
+				unknownNames.put(permission, Boolean.TRUE);
+				return UNKNOWN_ID;
+			}
+			remember(permission, id);
+		}
+		return id;
+	}
+
+	public String nameOf(int id) {
+		String permission = localNames.get(id);
+		if (permission == null) {
+			List<?> names = entityManager.createNativeQuery(FIND_NAME_SQL).setParameter("id", id).getResultList();
+			if (!names.isEmpty()) {
+				permission = (String) names.get(0);
+				remember(permission, id);
+			}
+		}
+		return permission;
+	}
+
+	public List<Integer> idsOf(Collection<String> permissions) {
+		List<Integer> permissionIds = new ArrayList<>(permissions.size());
+		for (String permission : permissions) {
+			permissionIds.add(idOf(permission));
+		}
+		return permissionIds;
+	}
+
+	public List<String> namesOf(Collection<Integer> permissionIds) {
+		List<String> permissions = new ArrayList<>(permissionIds.size());
+		for (Integer id : permissionIds) {
+			String permission = nameOf(id);
+			if (permission != null) {
+				permissions.add(permission);
+			}
+		}
+		return permissions;
+	}
+
+	private Integer findStoredId(String permission) {
+		List<?> ids = entityManager.createNativeQuery(FIND_ID_SQL).setParameter("name", permission).getResultList();
+		return ids.isEmpty() ? null : ((Number) ids.get(0)).intValue();
+	}
+
+	private int register(String permission) {
+		// another node may register the same name concurrently, the first insert wins
+		Integer id = registerTransaction.execute(status -> {
+			// the query space keeps the insert from evicting the whole second level cache
+			entityManager.createNativeQuery(REGISTER_SQL).unwrap(NativeQuery.class)
+					.addSynchronizedQuerySpace(PERMISSION_REGISTRY_TABLE).setParameter("name", permission)
+					.executeUpdate();
+			return findStoredId(permission);
+		});
+		if (id == null) {
+			throw new ExpoRuntimeException("XE_16", "permission could not be registered " + permission);
+		}
+		return id;
+	}
+
+	private void remember(String permission, int id) {
+		localIds.put(permission, id);
+		localNames.put(id, permission);
+		unknownNames.invalidate(permission);
+	}
+}
@@ -0,0 +1,40 @@
+package com.xperexpo.organizationservice.scheduler;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.xperexpo.organizationservice.utils.LogUtil;
+
+@Component
+public class SecondLevelCacheStatisticsReporter {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Scheduled(fixedDelayString = "${second-level-cache.report-delay-ms:300000}")
+	public void report() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		if (!statistics.isStatisticsEnabled()) {
+			return;
+		}
+		for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+			if (region == null) {
+				continue;
+			}
+			long hits = region.getHitCount();
+			long misses = region.getMissCount();
+			long lookups = hits + misses;
+			double hitRatio = lookups == 0 ? 0 : (double) hits / lookups;
+			LogUtil.logInfo(SecondLevelCacheStatisticsReporter.class,
+					String.format("second level cache region %s hits: %d misses: %d puts: %d hit ratio: %.2f",
+							regionName, hits, misses, region.getPutCount(), hitRatio));
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.xperexpo.organizationservice.config;
+
+import java.util.Map;
+
+import org.redisson.api.RedissonClient;
+import org.redisson.hibernate.RedissonRegionFactory;
+
+/**
+ * Second level cache regions stored in Redis through the RedissonClient the
+ * application already runs, instead of a second client built from a separate
+ * redisson.yaml. The client belongs to Spring, so it is not shut down together
+ * with the session factory.
+ */
+public class SharedRedissonRegionFactory extends RedissonRegionFactory {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient RedissonClient redissonClient;
+
+	public SharedRedissonRegionFactory(RedissonClient redissonClient) {
+		this.redissonClient = redissonClient;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected RedissonClient createRedissonClient(Map properties) {
+		return redissonClient;
+	}
+
+	@Override
+	protected void releaseFromUse() {
+		// the shared client is closed by Spring
+	}
+}
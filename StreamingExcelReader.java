@@ -0,0 +1,145 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.xperexpo.organizationservice.exception.ExpoRuntimeException;
+
+/**
+ * Reading counterpart of {@link ExcelUtils} for large uploads. The first sheet
+ * is parsed with SAX, one row at a time, so memory depends on the width of a
+ * row and not on the number of rows. The first row holds the column names.
+ */
+public final class StreamingExcelReader {
+
+	private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm";
+
+	private StreamingExcelReader() {
+	}
+
+	@FunctionalInterface
+	public interface RowHandler {
+
+		/**
+		 * @param rowNumber 1-based, as shown by spreadsheet programs
+		 * @param values    cell values by column name, blank cells are missing
+		 */
+		void handle(int rowNumber, Map<String, String> values);
+	}
+
+	public static void readFirstSheet(File file, RowHandler rowHandler) {
+		try (OPCPackage opcPackage = OPCPackage.open(file, PackageAccess.READ)) {
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(opcPackage);
+			XSSFReader reader = new XSSFReader(opcPackage);
+			StylesTable styles = reader.getStylesTable();
+
+			Iterator<InputStream> sheets = reader.getSheetsData();
+			if (!sheets.hasNext()) {
+				return;
+			}
+			try (InputStream sheet = sheets.next()) {
+				XMLReader parser = XMLHelper.newXMLReader();
+				parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, new RowCollector(rowHandler),
+						new IsoDateFormatter(), false));
+				parser.parse(new InputSource(sheet));
+			}
+		} catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+			LogUtil.logError(StreamingExcelReader.class, "excel file could not be read", e);
+			throw new ExpoRuntimeException("XE_16", "invalid excel file");
+		}
+	}
+
+	private static class RowCollector implements SheetContentsHandler {
+
+		private final RowHandler rowHandler;
+		private final List<String> headers = new ArrayList<>();
+		private Map<String, String> values;
+		private int currentRow;
+		private int nextColumn;
+
+		RowCollector(RowHandler rowHandler) {
+			this.rowHandler = rowHandler;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			currentRow = rowNum;
+			nextColumn = 0;
+			values = new LinkedHashMap<>();
+		}
+
+		@Override
+		public void endRow(int rowNum) {
+			if (rowNum > 0 && !values.isEmpty()) {
+				rowHandler.handle(rowNum + 1, values);
+			}
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+			int column = cellReference == null ? nextColumn : new CellReference(cellReference).getCol();
+			nextColumn = column + 1;
+			String value = formattedValue == null ? null : formattedValue.trim();
+
+			if (currentRow == 0) {
+				while (headers.size() <= column) {
+					headers.add(null);
+				}
+				headers.set(column, value);
+			} else if (column < headers.size() && !Utils.isNullOrEmpty(headers.get(column))
+					&& !Utils.isNullOrEmpty(value)) {
+				values.put(headers.get(column), value);
+			}
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+			// not needed for data import
+		}
+	}
+
+	/**
+	 * Date cells are handed over in the same pattern the event requests use, so
+	 * they can be parsed like typed values.
+	 */
+	private static class IsoDateFormatter extends DataFormatter {
+
+		private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+
+		@Override
+		public String formatRawCellContents(double value, int formatIndex, String formatString) {
+			if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+				return DateUtil.getJavaDate(value).toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
+						.format(dateTimeFormatter);
+			}
+			return super.formatRawCellContents(value, formatIndex, formatString);
+		}
+	}
+}
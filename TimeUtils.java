@@ -1,11 +1,18 @@
 package com.xperexpo.organizationservice.utils;
 
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.xperexpo.organizationservice.payload.ZoneDateTime;
 
@@ -18,12 +25,19 @@ public class TimeUtils {
     private static final String YYYY_MM_DD_HH_MM_SS = "yyyy-MM-dd HH:mm:ss";
     private static final String YYYY_MM_DD_HH_MM = "yyyy-MM-dd HH:mm";
 
+    // formatters are immutable and thread safe, zones are resolved once per id
+    private static final DateTimeFormatter YYYY_MM_DD_HH_MM_SS_FORMATTER = DateTimeFormatter
+            .ofPattern(YYYY_MM_DD_HH_MM_SS);
+    private static final DateTimeFormatter YYYY_MM_DD_HH_MM_FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM);
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final int MAX_CACHED_TIME_ZONES = 1000;
+    private static final Map<String, ZoneId> ZONE_IDS = new ConcurrentHashMap<>();
+    private static final Map<String, ZoneId> TIME_ZONE_IDS = new ConcurrentHashMap<>();
+
     public static ZoneDateTime getGMTFormatter(LocalDateTime time, String sourceLocalTimeZone) {
 		if (time != null && !Utils.isNullOrEmpty(sourceLocalTimeZone)) {
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM_SS);
-
-        ZonedDateTime atZone = time.atZone(TimeZone.getTimeZone(sourceLocalTimeZone).toZoneId());
-        return new ZoneDateTime(time.format(dateTimeFormatter), atZone.getOffset().toString());
+        ZonedDateTime atZone = time.atZone(timeZoneOf(sourceLocalTimeZone));
+        return new ZoneDateTime(time.format(YYYY_MM_DD_HH_MM_SS_FORMATTER), atZone.getOffset().toString());
 	}
 	return null;
 
@@ -31,22 +45,75 @@ public class TimeUtils {
 
 	public static LocalDateTime getDateTimeZone(LocalDateTime time, String sourceLocalTimeZone) {
 
-		return time.atZone(ZoneId.of("UTC")).withZoneSameInstant(ZoneId.of(sourceLocalTimeZone)).toLocalDateTime();
+		return time.atZone(UTC).withZoneSameInstant(zoneOf(sourceLocalTimeZone)).toLocalDateTime();
+	}
+
+	/**
+	 * Converts a whole column of UTC times to one zone, resolving the zone rules
+	 * once for the batch. Null elements stay null.
+	 */
+	public static List<LocalDateTime> getDateTimeZone(List<LocalDateTime> times, String sourceLocalTimeZone) {
+		ZoneRules rules = zoneOf(sourceLocalTimeZone).getRules();
+		List<LocalDateTime> converted = new ArrayList<>(times.size());
+		for (LocalDateTime time : times) {
+			if (time == null) {
+				converted.add(null);
+			} else {
+				ZoneOffset offset = rules.getOffset(Instant.ofEpochSecond(time.toEpochSecond(ZoneOffset.UTC)));
+				converted.add(time.plusSeconds(offset.getTotalSeconds()));
+			}
+		}
+		return converted;
+	}
+
+	/**
+	 * Batch variant of {@link #getGMTFormatter(LocalDateTime, String)} for list
+	 * conversions.
+	 */
+	public static List<ZoneDateTime> getGMTFormatter(List<LocalDateTime> times, String sourceLocalTimeZone) {
+		List<ZoneDateTime> converted = new ArrayList<>(times.size());
+		for (LocalDateTime time : times) {
+			converted.add(getGMTFormatter(time, sourceLocalTimeZone));
+		}
+		return converted;
 	}
 
 	public static LocalDateTime parseDateTime(String date, String sourceLocalTimeZone) {
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM);
-		return LocalDateTime.parse(date, formatter).atZone(ZoneId.of(sourceLocalTimeZone))
-				.withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime();
+		return LocalDateTime.parse(date, YYYY_MM_DD_HH_MM_FORMATTER).atZone(zoneOf(sourceLocalTimeZone))
+				.withZoneSameInstant(UTC).toLocalDateTime();
 	}
 
     public static LocalDateTime parseDateTime(String date) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM);
-        return LocalDateTime.parse(date, formatter);
+        return LocalDateTime.parse(date, YYYY_MM_DD_HH_MM_FORMATTER);
     }
 
 
     public static LocalDateTime getUTCTime(LocalDateTime time, String sourceLocalTimeZone) {
-        return time.atZone(ZoneId.of(sourceLocalTimeZone)).withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime();
+        return time.atZone(zoneOf(sourceLocalTimeZone)).withZoneSameInstant(UTC).toLocalDateTime();
     }
+
+	// ZoneId.of semantics: invalid ids throw and are not cached; offset ids are
+	// unlimited, so the cache is bounded like the one of timeZoneOf
+	private static ZoneId zoneOf(String zoneId) {
+		ZoneId zone = ZONE_IDS.get(zoneId);
+		if (zone == null) {
+			zone = ZoneId.of(zoneId);
+			if (ZONE_IDS.size() < MAX_CACHED_TIME_ZONES) {
+				ZONE_IDS.put(zoneId, zone);
+			}
+		}
+		return zone;
+	}
+
+	// TimeZone.getTimeZone semantics: unknown ids fall back to GMT, so the cache is bounded
+	private static ZoneId timeZoneOf(String timeZone) {
+		ZoneId zoneId = TIME_ZONE_IDS.get(timeZone);
+		if (zoneId == null) {
+			zoneId = TimeZone.getTimeZone(timeZone).toZoneId();
+			if (TIME_ZONE_IDS.size() < MAX_CACHED_TIME_ZONES) {
+				TIME_ZONE_IDS.put(timeZone, zoneId);
+			}
+		}
+		return zoneId;
+	}
 }
@@ -0,0 +1,52 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.xperexpo.organizationservice.payload.UserBaseFieldResponse;
+
+/**
+ * Profile data (timezone, language, organizer info) of the users one request
+ * touches. Every value is looked up at most once per user and reused for the
+ * rest of the request. Obtained from {@link UserContextProvider}; not thread
+ * safe, it belongs to one request or one background batch.
+ */
+public class UserContext {
+
+	private final Function<String, String> timeZoneLoader;
+
+	private final Function<String, String> languageLoader;
+
+	private final Function<String, UserBaseFieldResponse> userInfoLoader;
+
+	private final Map<String, String> timeZones = new HashMap<>();
+
+	private final Map<String, String> languages = new HashMap<>();
+
+	private final Map<String, UserBaseFieldResponse> userInfos = new HashMap<>();
+
+	UserContext(Function<String, String> timeZoneLoader, Function<String, String> languageLoader,
+			Function<String, UserBaseFieldResponse> userInfoLoader) {
+		this.timeZoneLoader = timeZoneLoader;
+		this.languageLoader = languageLoader;
+		this.userInfoLoader = userInfoLoader;
+	}
+
+	public String getTimeZone(String userId) {
+		return timeZones.computeIfAbsent(userId, timeZoneLoader);
+	}
+
+	public String getLanguageCode(String userId) {
+		return languages.computeIfAbsent(userId, languageLoader);
+	}
+
+	public UserBaseFieldResponse getOrganizerUserInfo(String userId) {
+		return userInfos.computeIfAbsent(userId, userInfoLoader);
+	}
+
+	public String getDisplayName(String userId) {
+		UserBaseFieldResponse userInfo = getOrganizerUserInfo(userId);
+		return userInfo.getName() + " " + userInfo.getLastName();
+	}
+}
@@ -0,0 +1,52 @@
+package com.xperexpo.organizationservice.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.xperexpo.organizationservice.service.UserService;
+
+@Component
+public class UserContextProvider {
+
+	private static final String REQUEST_ATTRIBUTE = UserContext.class.getName();
+
+	@Autowired
+	private TimeZoneRedisUtils timeZoneRedisUtils;
+
+	@Autowired
+	private UserLanguageUtils userLanguageUtils;
+
+	@Lazy
+	@Autowired
+	private UserService userService;
+
+	/**
+	 * The context of the current request, created on first use. Outside of a
+	 * request (schedulers, async response bodies) a fresh context is returned.
+	 */
+	public UserContext current() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return newContext();
+		}
+		UserContext userContext = (UserContext) attributes.getAttribute(REQUEST_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+		if (userContext == null) {
+			userContext = newContext();
+			attributes.setAttribute(REQUEST_ATTRIBUTE, userContext, RequestAttributes.SCOPE_REQUEST);
+		}
+		return userContext;
+	}
+
+	/**
+	 * A context that lives as long as the caller keeps it, for background work
+	 * that handles many users in one batch.
+	 */
+	public UserContext newContext() {
+		return new UserContext(timeZoneRedisUtils::getTimeZoneForRedis, userLanguageUtils::getLanguageCode,
+				userService::findOrganizerUserInfo);
+	}
+}
@@ -1,11 +1,35 @@
 package com.xperexpo.organizationservice.utils;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.redisson.api.RList;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.redisson.api.BatchOptions;
+import org.redisson.api.BatchOptions.ExecutionMode;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RPatternTopic;
+import org.redisson.api.RSetAsync;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.IntegerCodec;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
@@ -14,29 +38,271 @@ import com.xperexpo.organizationservice.client.AuthExternalService;
 import com.xperexpo.organizationservice.enums.PermissionViewType;
 import com.xperexpo.organizationservice.payload.PermissionListPayload;
 
+/**
+ * Permissions of a user per scope, cached in Redis as permission ids and in a
+ * near cache on each node. The near cache is invalidated through the
+ * invalidation topic for changes made here, and through Redis key deletion
+ * events for changes made by auth-service, which only deletes the Redis key.
+ * On a miss only one node per key calls auth-service, the others wait on its
+ * load lock and read the result from Redis. Entries about to expire are
+ * served as they are and reloaded in the background.
+ */
 @Component
 public class UserPermissionUtils {
 
+	private static final String INVALIDATION_TOPIC = "user-permission-invalidation";
+	private static final String INVALIDATE_ALL = "*";
+	// keyevent notifications, need notify-keyspace-events with at least "Eg" on the Redis server
+	private static final String KEY_DELETION_EVENTS = "__keyevent@*__:del";
+	private static final int NEAR_CACHE_SIZE = 10_000;
+	private static final long NEAR_CACHE_TTL_SECONDS = 300;
+	private static final long REDIS_TTL_MILLIS = TimeUnit.HOURS.toMillis(12);
+	private static final long REDIS_TTL_JITTER_MILLIS = TimeUnit.HOURS.toMillis(1);
+	private static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(30);
+	private static final String LOAD_LOCK_SUFFIX = ":load-lock";
+	private static final long LOAD_LOCK_WAIT_MILLIS = 5_000;
+	private static final long LOAD_LOCK_LEASE_MILLIS = 30_000;
+	private static final int REFRESH_WORKERS = 2;
+	private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+	private final LocalTtlCache<String, CompiledPermissions> nearCache = new LocalTtlCache<>(NEAR_CACHE_SIZE,
+			NEAR_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
+
+	private final LongAdder redisHits = new LongAdder();
+
+	private final LongAdder redisMisses = new LongAdder();
+
+	private final ConcurrentHashMap<String, CompletableFuture<List<String>>> inFlightLoads = new ConcurrentHashMap<>();
+
+	private final Set<String> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+
 	@Autowired
 	private RedissonClient redissonClient;
 
 	@Autowired
 	private RedisCacheNameUtils redisCacheName;
 
+	@Autowired
+	private PermissionRegistry permissionRegistry;
+
 	@Lazy
 	@Autowired
 	private AuthExternalService authExternalService;
 
+	private RTopic invalidationTopic;
+
+	private ThreadPoolExecutor refreshExecutor;
+
+	@PostConstruct
+	public void init() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		// refreshes are best effort, a full queue drops them and the entry is loaded on its miss
+		refreshExecutor = new ThreadPoolExecutor(REFRESH_WORKERS, REFRESH_WORKERS, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+					Thread thread = new Thread(runnable, "user-permission-refresh-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC);
+		invalidationTopic.addListener(String.class, (channel, cacheName) -> {
+			if (INVALIDATE_ALL.equals(cacheName)) {
+				nearCache.invalidateAll();
+			} else {
+				nearCache.invalidate(cacheName);
+			}
+		});
+		// auth-service deletes the key on a role change without publishing on the topic
+		RPatternTopic keyDeletions = redissonClient.getPatternTopic(KEY_DELETION_EVENTS, StringCodec.INSTANCE);
+		keyDeletions.addListener(String.class, (pattern, channel, key) -> nearCache.invalidate(key));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		refreshExecutor.shutdownNow();
+	}
+
 	public List<String> getUserPermission(String userId, Long typeId, PermissionViewType permissionViewType) {
+		return getCompiledPermission(userId, typeId, permissionViewType).getPermissions();
+	}
 
-		List<String> userPermissionByRedis = getUserPermissionByRedis(userId, typeId, permissionViewType);
+	public CompiledPermissions getCompiledPermission(String userId, Long typeId,
+			PermissionViewType permissionViewType) {
 
-		if (userPermissionByRedis == null || userPermissionByRedis.isEmpty()) {
+		String cacheName = redisCacheName.getUserPermissionCacheName(userId, typeId, permissionViewType);
 
-			return addUserPermissionRedis(userId, typeId, permissionViewType);
+		CompiledPermissions userPermissionByNearCache = nearCache.get(cacheName);
+		if (userPermissionByNearCache != null) {
+			return userPermissionByNearCache;
+		}
+
+		RedisPermissionEntry redisEntry = getUserPermissionByRedis(cacheName);
+		CompiledPermissions userPermission = redisEntry.permissions;
+
+		if (userPermission.isEmpty()) {
+			redisMisses.increment();
+			userPermission = compile(loadUserPermission(cacheName, userId, typeId, permissionViewType));
 		} else {
-			return userPermissionByRedis;
+			redisHits.increment();
+			if (redisEntry.remainTimeToLive >= 0 && redisEntry.remainTimeToLive < REFRESH_AHEAD_MILLIS) {
+				refreshInBackground(cacheName, userId, typeId, permissionViewType);
+			}
+		}
+
+		if (!userPermission.isEmpty()) {
+			nearCache.put(cacheName, userPermission);
 		}
+		return userPermission;
+	}
+
+	/**
+	 * Drops the cached permissions of one user and scope from Redis and from the
+	 * near cache of every node. Has to be called whenever the roles behind them
+	 * change.
+	 */
+	public void evictUserPermission(String userId, Long typeId, PermissionViewType permissionViewType) {
+		String cacheName = redisCacheName.getUserPermissionCacheName(userId, typeId, permissionViewType);
+		redissonClient.getKeys().delete(cacheName);
+		nearCache.invalidate(cacheName);
+		invalidationTopic.publish(cacheName);
+	}
+
+	/**
+	 * Clears the near cache of every node, for role changes that affect users
+	 * which cannot be listed here. Redis entries expire on their own.
+	 */
+	public void evictAllNearCachedPermissions() {
+		nearCache.invalidateAll();
+		invalidationTopic.publish(INVALIDATE_ALL);
+	}
+
+	public Map<String, Long> getCacheStatistics() {
+		Map<String, Long> statistics = new LinkedHashMap<>();
+		statistics.put("nearCacheHits", nearCache.getHitCount());
+		statistics.put("nearCacheMisses", nearCache.getMissCount());
+		statistics.put("nearCacheSize", (long) nearCache.size());
+		statistics.put("redisHits", redisHits.sum());
+		statistics.put("redisMisses", redisMisses.sum());
+		return statistics;
+	}
+
+	/**
+	 * Loads the permissions from auth-service once per key: concurrent callers for
+	 * the same user and scope wait on the future of the caller that is already
+	 * loading on this node, and that caller waits on the load lock of the key
+	 * while another node loads it.
+	 */
+	private List<String> loadUserPermission(String cacheName, String userId, Long typeId,
+			PermissionViewType permissionViewType) {
+		CompletableFuture<List<String>> load = new CompletableFuture<>();
+		CompletableFuture<List<String>> inFlight = inFlightLoads.putIfAbsent(cacheName, load);
+		if (inFlight != null) {
+			return inFlight.join();
+		}
+		try {
+			List<String> userPermission = loadUserPermissionLocked(cacheName, userId, typeId, permissionViewType);
+			load.complete(userPermission);
+			return userPermission;
+		} catch (RuntimeException e) {
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightLoads.remove(cacheName, load);
+		}
+	}
+
+	/**
+	 * Calls auth-service under the load lock of the key. Whoever gets the lock
+	 * after another node first finds the permissions in Redis; when the lock is
+	 * not acquired in time, auth-service is called without it.
+	 */
+	private List<String> loadUserPermissionLocked(String cacheName, String userId, Long typeId,
+			PermissionViewType permissionViewType) {
+		RLock lock = redissonClient.getLock(cacheName + LOAD_LOCK_SUFFIX);
+		boolean locked = tryLock(lock, LOAD_LOCK_WAIT_MILLIS);
+		try {
+			if (locked) {
+				CompiledPermissions loaded = getUserPermissionByRedis(cacheName).permissions;
+				if (!loaded.isEmpty()) {
+					return loaded.getPermissions();
+				}
+			}
+			return addUserPermissionRedis(userId, typeId, permissionViewType);
+		} finally {
+			// the lease may have ended during a slow auth-service call
+			if (locked && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void refreshInBackground(String cacheName, String userId, Long typeId,
+			PermissionViewType permissionViewType) {
+		if (!inFlightRefreshes.add(cacheName)) {
+			return;
+		}
+		try {
+			refreshExecutor.execute(() -> {
+				try {
+					refreshUserPermission(cacheName, userId, typeId, permissionViewType);
+				} catch (RuntimeException e) {
+					LogUtil.logError(UserPermissionUtils.class, "permission refresh failed " + cacheName, e);
+				} finally {
+					inFlightRefreshes.remove(cacheName);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlightRefreshes.remove(cacheName);
+		}
+	}
+
+	/**
+	 * Reloads an entry that is about to expire. The load lock is only tried, the
+	 * node holding it is already reloading, and the ttl is checked again under
+	 * the lock so that an entry another node has just refreshed is left alone.
+	 */
+	private void refreshUserPermission(String cacheName, String userId, Long typeId,
+			PermissionViewType permissionViewType) {
+		RLock lock = redissonClient.getLock(cacheName + LOAD_LOCK_SUFFIX);
+		if (!tryLock(lock, 0)) {
+			return;
+		}
+		try {
+			long remainTimeToLive = redissonClient.getSet(cacheName, IntegerCodec.INSTANCE).remainTimeToLive();
+			if (remainTimeToLive < 0 || remainTimeToLive >= REFRESH_AHEAD_MILLIS) {
+				return;
+			}
+			List<String> refreshed = addUserPermissionRedis(userId, typeId, permissionViewType);
+			if (refreshed != null && !refreshed.isEmpty()) {
+				// other nodes drop theirs on the deletion event of the rewrite
+				nearCache.invalidate(cacheName);
+			}
+		} finally {
+			if (lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	private boolean tryLock(RLock lock, long waitMillis) {
+		try {
+			return lock.tryLock(waitMillis, LOAD_LOCK_LEASE_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private CompiledPermissions compile(List<String> userPermission) {
+		if (userPermission == null || userPermission.isEmpty()) {
+			return CompiledPermissions.empty();
+		}
+		return CompiledPermissions.of(permissionRegistry.idsOf(userPermission), userPermission);
+	}
+
+	private long jitteredRedisTtlMillis() {
+		// spread expiries so that keys written together do not expire together
+		return REDIS_TTL_MILLIS - ThreadLocalRandom.current().nextLong(REDIS_TTL_JITTER_MILLIS);
 	}
 
 	private List<String> addUserPermissionRedis(String userId, Long typeId, PermissionViewType permissionViewType) {
@@ -60,10 +326,8 @@ public class UserPermissionUtils {
 
 			List<String> userPermissionByRedis = authExternalService.getUserPermission(permissionListPayload).getBody();
 			if (userPermissionByRedis != null && !userPermissionByRedis.isEmpty()) {
-				RList<String> list = redissonClient
-						.getList(redisCacheName.getUserPermissionCacheName(userId, typeId, permissionViewType));
-				list.expire(12, TimeUnit.HOURS);
-				list.addAll(userPermissionByRedis);
+				writeUserPermissionRedis(redisCacheName.getUserPermissionCacheName(userId, typeId, permissionViewType),
+						userPermissionByRedis);
 			}
 			return userPermissionByRedis;
 		} catch (Exception e) {
@@ -72,11 +336,53 @@ public class UserPermissionUtils {
 		}
 	}
 
-	private List<String> getUserPermissionByRedis(String userId, Long organizationId,
-			PermissionViewType permissionViewType) {
-		RList<String> permissionRedisList = redissonClient
-				.getList(redisCacheName.getUserPermissionCacheName(userId, organizationId, permissionViewType));
-		return permissionRedisList.readAll();
+	/**
+	 * Replaces the cached permission ids and sets their ttl in a single MULTI/EXEC,
+	 * so readers never see a set without expiry or a half written one. The set
+	 * keeps the RedisCacheNameUtils key, so whoever deletes that key on a role
+	 * change still invalidates it.
+	 */
+	private void writeUserPermissionRedis(String cacheName, List<String> userPermission) {
+		List<Integer> permissionIds = permissionRegistry.idsOf(userPermission);
+		RBatch batch = redissonClient
+				.createBatch(BatchOptions.defaults().executionMode(ExecutionMode.IN_MEMORY_ATOMIC));
+		RSetAsync<Integer> permissionRedisSet = batch.getSet(cacheName, IntegerCodec.INSTANCE);
+		permissionRedisSet.deleteAsync();
+		permissionRedisSet.addAllAsync(permissionIds);
+		permissionRedisSet.expireAsync(jitteredRedisTtlMillis(), TimeUnit.MILLISECONDS);
+		batch.execute();
+	}
+
+	private RedisPermissionEntry getUserPermissionByRedis(String cacheName) {
+		// permission ids and remaining ttl in one round trip
+		RBatch batch = redissonClient.createBatch();
+		RSetAsync<Integer> permissionRedisSet = batch.getSet(cacheName, IntegerCodec.INSTANCE);
+		RFuture<Set<Integer>> permissionIds = permissionRedisSet.readAllAsync();
+		RFuture<Long> remainTimeToLive = permissionRedisSet.remainTimeToLiveAsync();
+		try {
+			batch.execute();
+		} catch (RedisException e) {
+			// WRONGTYPE for a string list written by an older version, reloading replaces it
+			LogUtil.logError(UserPermissionUtils.class, "unreadable permission cache entry " + cacheName, e);
+			return new RedisPermissionEntry(CompiledPermissions.empty(), null);
+		}
+		Set<Integer> ids = permissionIds.getNow();
+		CompiledPermissions permissions = ids == null || ids.isEmpty() ? CompiledPermissions.empty()
+				: CompiledPermissions.of(ids, permissionRegistry.namesOf(ids));
+		return new RedisPermissionEntry(permissions, remainTimeToLive.getNow());
+	}
+
+	private static final class RedisPermissionEntry {
+
+		private final CompiledPermissions permissions;
+
+		// milliseconds, negative when the key has no ttl or does not exist
+		private final long remainTimeToLive;
+
+		private RedisPermissionEntry(CompiledPermissions permissions, Long remainTimeToLive) {
+			this.permissions = permissions;
+			this.remainTimeToLive = remainTimeToLive == null ? -1 : remainTimeToLive;
+		}
 	}
 
 }
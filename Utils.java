@@ -1,11 +1,18 @@
 package com.xperexpo.organizationservice.utils;
 
+import java.text.Normalizer;
 import java.util.Locale;
 
 import java.util.UUID;
+import java.util.regex.Pattern;
+
 import org.springframework.web.multipart.MultipartFile;
 
 public class Utils {
+	public static final String DELETED_URL_MARKER = "-PASSIVE-";
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
 	private Utils() {
 	}
 
@@ -65,8 +72,62 @@ public class Utils {
 		return capitalizeWord.toString().trim();
 	}
 
+	/**
+	 * Folds a text for search: Turkish aware lower case, dotless and dotted i as
+	 * well as the other Turkish letters mapped to their ASCII base, accents
+	 * removed and whitespace collapsed. The same folding is applied to stored keys
+	 * and to search input, so "Istanbul", "İstanbul" and "ıstanbul" all match.
+	 */
+	public static String normalizeSearchText(String text) {
+		if (text == null) {
+			return "";
+		}
+		String lower = text.toLowerCase(Locale.forLanguageTag("tr-TR"));
+		StringBuilder folded = new StringBuilder(lower.length());
+		for (char c : lower.toCharArray()) {
+			switch (c) {
+			case 'ı':
+				folded.append('i');
+				break;
+			case 'ğ':
+				folded.append('g');
+				break;
+			case 'ş':
+				folded.append('s');
+				break;
+			case 'ç':
+				folded.append('c');
+				break;
+			case 'ö':
+				folded.append('o');
+				break;
+			case 'ü':
+				folded.append('u');
+				break;
+			default:
+				folded.append(c);
+			}
+		}
+		return COMBINING_MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("")
+				.replaceAll("\\s+", " ").trim();
+	}
+
 	public static String generateUUIDForDeleteAction(){
-		return "-PASSIVE-"+UUID.randomUUID().toString().substring(0,18);
+		return DELETED_URL_MARKER+UUID.randomUUID().toString().substring(0,18);
+	}
+
+	/**
+	 * Url a soft deleted event is parked under. The event id keeps it unique and
+	 * {@link #fromDeletedUrl(String)} recovers the original url. Set based deletes
+	 * build the same value in JPQL from {@link #DELETED_URL_MARKER}.
+	 */
+	public static String toDeletedUrl(String url, Long eventId) {
+		return url + DELETED_URL_MARKER + eventId;
+	}
+
+	public static String fromDeletedUrl(String deletedUrl) {
+		int marker = deletedUrl.lastIndexOf(DELETED_URL_MARKER);
+		return marker < 0 ? deletedUrl : deletedUrl.substring(0, marker);
 	}
 
 }
@@ -0,0 +1,24 @@
+-- mails queued by event writes in the same transaction, sent later by
+-- MailOutboxDispatcher; ids come from a pooled sequence so the inserts can be
+-- batched, and idempotency keys repeat across rows of the same kind of mail
+create sequence mail_outbox_seq increment by 50;
+
+create table mail_outbox (
+	id bigint not null,
+	idempotency_key varchar(100) not null,
+	type varchar(32) not null,
+	status varchar(16) not null,
+	event_id bigint not null,
+	user_id varchar(255),
+	publish boolean,
+	attempts int not null,
+	next_attempt_at timestamp not null,
+	created_at timestamp not null,
+	sent_at timestamp,
+	last_error varchar(1000),
+	constraint pk_mail_outbox primary key (id)
+);
+
+create index ix_mail_outbox_status_next_attempt on mail_outbox (status, next_attempt_at);
+
+create index ix_mail_outbox_idempotency_key on mail_outbox (idempotency_key);
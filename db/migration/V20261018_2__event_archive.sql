@@ -0,0 +1,25 @@
+-- soft deleted events moved out of the hot tables by EventArchiveServiceImpl,
+-- rows are kept as jsonb so the archive survives column changes of the hot tables
+create table event_archive (
+	event_id bigint not null,
+	organization_id bigint not null,
+	archived_at timestamp not null,
+	row_data jsonb not null,
+	constraint pk_event_archive primary key (event_id)
+);
+
+create index ix_event_archive_organization_id on event_archive (organization_id);
+
+-- rows that belong to an archived event: its interval date, which the event
+-- row references (restore_order < 0), and its tags (restore_order > 0)
+create table event_archive_row (
+	id bigserial not null,
+	event_id bigint not null,
+	table_name varchar(128) not null,
+	restore_order int not null,
+	row_data jsonb not null,
+	constraint pk_event_archive_row primary key (id),
+	constraint fk_event_archive_row_event foreign key (event_id) references event_archive (event_id) on delete cascade
+);
+
+create index ix_event_archive_row_event_id on event_archive_row (event_id, restore_order);
@@ -0,0 +1,24 @@
+-- denormalized listing data of an event maintained by EventListingIndexer,
+-- existing events are backfilled by the indexer at startup
+create table event_listing (
+	event_id bigint not null,
+	organization_id bigint not null,
+	search_key varchar(1000) not null,
+	general_start_date timestamp,
+	general_end_date timestamp,
+	time_status varchar(16),
+	constraint pk_event_listing primary key (event_id),
+	constraint fk_event_listing_event foreign key (event_id) references event (id)
+);
+
+create index ix_event_listing_organization_id_time_status on event_listing (organization_id, time_status);
+
+create index ix_event_listing_general_start_date on event_listing (general_start_date);
+
+create index ix_event_listing_general_end_date on event_listing (general_end_date);
+
+-- substring search on the folded event name (EventListing.searchKey) is a
+-- like '%text%' filter, which only a trigram index can serve
+create extension if not exists pg_trgm;
+
+create index ix_event_listing_search_key_trgm on event_listing using gin (search_key gin_trgm_ops);
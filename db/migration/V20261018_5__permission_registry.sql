@@ -0,0 +1,8 @@
+-- permission names interned to small ids by PermissionRegistry; ids are never
+-- reused, cached permission sets and the copies on each node rely on that
+create table permission_registry (
+	id integer generated always as identity not null,
+	name varchar(255) not null,
+	constraint pk_permission_registry primary key (id),
+	constraint uk_permission_registry_name unique (name)
+);
@@ -0,0 +1,138 @@
+package com.xperexpo.organizationservice.security;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.xperexpo.organizationservice.utils.CompiledPermissions;
+import com.xperexpo.organizationservice.utils.PermissionRegistry;
+
+/**
+ * One authorization check against a user holding {@code authorityCount}
+ * permissions, for a held and for a missing name: the former scan of the
+ * authority list, the authority set {@code hasAuthority} builds per
+ * expression, and the {@link EventPermissionEvaluator} path of a
+ * {@link PermissionRegistry#findId} lookup and a bit test. The registry is the
+ * real one over a stubbed {@code permission_registry} table, which is only
+ * read while the names are new to the node: the held name is then a local id
+ * hit and the missing one a hit of the negative cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+	private static final String PERMISSION_PREFIX = "EVENT_PERMISSION_";
+	private static final String MISSING_PERMISSION = "ORGANIZATION_PERMISSION_MISSING";
+
+	@Param({ "10", "100", "500" })
+	private int authorityCount;
+
+	private String heldPermission;
+
+	private List<GrantedAuthority> authorities;
+
+	private PermissionRegistry permissionRegistry;
+
+	private CompiledPermissions compiledPermissions;
+
+	@Setup
+	public void setUp() {
+		List<String> permissions = new ArrayList<>(authorityCount);
+		Map<String, Integer> storedIds = new HashMap<>();
+		for (int i = 0; i < authorityCount; i++) {
+			String permission = PERMISSION_PREFIX + i;
+			permissions.add(permission);
+			storedIds.put(permission, i + 1);
+		}
+		// the last one is the worst case of the list scan
+		heldPermission = permissions.get(authorityCount - 1);
+		authorities = AuthorityUtils.createAuthorityList(permissions.toArray(String[]::new));
+
+		permissionRegistry = new PermissionRegistry();
+		ReflectionTestUtils.setField(permissionRegistry, "entityManager", registryTable(storedIds));
+		compiledPermissions = CompiledPermissions.of(permissionRegistry.idsOf(permissions), permissions);
+		permissionRegistry.findId(MISSING_PERMISSION);
+	}
+
+	@Benchmark
+	public boolean authorityListHeld() {
+		return scan(heldPermission);
+	}
+
+	@Benchmark
+	public boolean authorityListMissing() {
+		return scan(MISSING_PERMISSION);
+	}
+
+	@Benchmark
+	public boolean authoritySetHeld() {
+		Set<String> authoritySet = AuthorityUtils.authorityListToSet(authorities);
+		return authoritySet.contains(heldPermission);
+	}
+
+	@Benchmark
+	public boolean compiledHeld() {
+		return compiledPermissions.has(permissionRegistry.findId(heldPermission));
+	}
+
+	@Benchmark
+	public boolean compiledMissing() {
+		return compiledPermissions.has(permissionRegistry.findId(MISSING_PERMISSION));
+	}
+
+	// answers the id lookup of the registry from the given names, the only query a known set needs
+	private static EntityManager registryTable(Map<String, Integer> storedIds) {
+		Query query = mock(Query.class);
+		String[] name = new String[1];
+		when(query.setParameter(eq("name"), anyString())).thenAnswer(invocation -> {
+			name[0] = invocation.getArgument(1);
+			return query;
+		});
+		when(query.getResultList()).thenAnswer(invocation -> {
+			Integer id = storedIds.get(name[0]);
+			return id == null ? List.of() : List.of(id);
+		});
+		EntityManager entityManager = mock(EntityManager.class);
+		when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+		return entityManager;
+	}
+
+	private boolean scan(String permission) {
+		for (GrantedAuthority authority : authorities) {
+			if (authority.getAuthority().equals(permission)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,166 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xperexpo.organizationservice.utils.Utils;
+
+/**
+ * Latency of event name search over 100k events of one organization on
+ * PostgreSQL: the former pair of {@code lower(name) like '%x%'} scans against
+ * the folded search key served by the trigram index, filtered and ordered by
+ * relevance as {@code searchEvents} does. The rows are written to a scratch
+ * schema that is dropped afterwards; the database is given with
+ * {@code -Dbenchmark.jdbc.url}, {@code -Dbenchmark.jdbc.user} and
+ * {@code -Dbenchmark.jdbc.password} and needs the pg_trgm extension.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSearchBenchmark {
+
+	private static final String SCHEMA = "event_search_benchmark";
+	private static final long ORGANIZATION_ID = 1L;
+	private static final int EVENT_COUNT = 100_000;
+	private static final int INSERT_BATCH_SIZE = 1000;
+	private static final int PAGE_SIZE = 20;
+	private static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+	private static final String[] WORDS = { "İstanbul", "Ankara", "İzmir", "Teknoloji", "Gıda", "Tarım", "Otomotiv",
+			"Mobilya", "Sağlık", "Eğitim", "Turizm", "Enerji", "Tekstil", "Kitap", "Yapı", "Savunma" };
+
+	private static final String LOWER_NAME_QUERY = "select event_id from event_listing where organization_id = ?"
+			+ " and (lower(name) like ? or lower(name) like ?) order by event_id limit " + PAGE_SIZE;
+	private static final String SEARCH_KEY_QUERY = "select event_id from event_listing where organization_id = ?"
+			+ " and search_key like ? escape '!' order by event_id limit " + PAGE_SIZE;
+	private static final String RELEVANCE_QUERY = "select event_id from event_listing where organization_id = ?"
+			+ " and search_key like ? escape '!' order by case when search_key like ? escape '!' then 0"
+			+ " when search_key like ? escape '!' then 1 else 2 end, length(search_key), event_id limit "
+			+ PAGE_SIZE;
+
+	// a common word, a rare one and a text matching nothing
+	@Param({ "istanbul", "fuarı 4242", "fuarx" })
+	private String search;
+
+	private Connection connection;
+
+	private PreparedStatement lowerNameQuery;
+
+	private PreparedStatement searchKeyQuery;
+
+	private PreparedStatement relevanceQuery;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url"),
+				System.getProperty("benchmark.jdbc.user"), System.getProperty("benchmark.jdbc.password"));
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("drop schema if exists " + SCHEMA + " cascade");
+			statement.execute("create schema " + SCHEMA);
+			statement.execute("set search_path to " + SCHEMA + ", public");
+			// the listing of the migration with the event name the former search read
+			statement.execute("create table event_listing (event_id bigint primary key,"
+					+ " organization_id bigint not null, name varchar(255) not null,"
+					+ " search_key varchar(1000) not null)");
+		}
+		seed();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create index ix_event_listing_organization_id on event_listing (organization_id)");
+			statement.execute(
+					"create index ix_event_listing_search_key_trgm on event_listing using gin (search_key gin_trgm_ops)");
+			statement.execute("analyze event_listing");
+		}
+
+		lowerNameQuery = connection.prepareStatement(LOWER_NAME_QUERY);
+		searchKeyQuery = connection.prepareStatement(SEARCH_KEY_QUERY);
+		relevanceQuery = connection.prepareStatement(RELEVANCE_QUERY);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("drop schema if exists " + SCHEMA + " cascade");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public int lowerNameScan() throws SQLException {
+		String lower = search.toLowerCase(TURKISH);
+		lowerNameQuery.setLong(1, ORGANIZATION_ID);
+		lowerNameQuery.setString(2, "%" + lower.replace("ı", "i") + "%");
+		lowerNameQuery.setString(3, "%" + lower.replace("i", "ı") + "%");
+		return count(lowerNameQuery);
+	}
+
+	@Benchmark
+	public int searchKeyTrigram() throws SQLException {
+		String searchText = Utils.normalizeSearchText(search);
+		searchKeyQuery.setLong(1, ORGANIZATION_ID);
+		searchKeyQuery.setString(2, "%" + searchText + "%");
+		return count(searchKeyQuery);
+	}
+
+	@Benchmark
+	public int relevanceOrdered() throws SQLException {
+		String searchText = Utils.normalizeSearchText(search);
+		relevanceQuery.setLong(1, ORGANIZATION_ID);
+		relevanceQuery.setString(2, "%" + searchText + "%");
+		relevanceQuery.setString(3, searchText + "%");
+		relevanceQuery.setString(4, "% " + searchText + "%");
+		return count(relevanceQuery);
+	}
+
+	private void seed() throws SQLException {
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement(
+				"insert into event_listing (event_id, organization_id, name, search_key) values (?, ?, ?, ?)")) {
+			for (int i = 1; i <= EVENT_COUNT; i++) {
+				String name = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " Fuarı " + i;
+				insert.setLong(1, i);
+				insert.setLong(2, ORGANIZATION_ID);
+				insert.setString(3, name);
+				insert.setString(4, Utils.normalizeSearchText(name));
+				insert.addBatch();
+				if (i % INSERT_BATCH_SIZE == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		connection.setAutoCommit(true);
+	}
+
+	private int count(PreparedStatement query) throws SQLException {
+		int rows = 0;
+		try (ResultSet resultSet = query.executeQuery()) {
+			while (resultSet.next()) {
+				rows++;
+			}
+		}
+		return rows;
+	}
+}
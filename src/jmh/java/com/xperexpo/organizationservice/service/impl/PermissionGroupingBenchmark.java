@@ -0,0 +1,84 @@
+package com.xperexpo.organizationservice.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xperexpo.organizationservice.payload.UserIdAndPermissionList;
+
+/**
+ * Assigns the auth response to the events of a list: the former filter of the
+ * whole response per event against
+ * {@link EventServiceImpl#groupPermissionsByEventId}. Every event has two
+ * entries of its own and the organization five.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionGroupingBenchmark {
+
+	private static final Long ORGANIZATION_ID = 0L;
+	private static final int ENTRIES_PER_EVENT = 2;
+	private static final int ORGANIZATION_ENTRIES = 5;
+
+	@Param({ "10", "1000", "10000" })
+	private int eventCount;
+
+	private List<Long> eventIds;
+
+	private List<UserIdAndPermissionList> response;
+
+	@Setup
+	public void setUp() {
+		eventIds = new ArrayList<>(eventCount);
+		response = new ArrayList<>();
+		for (int i = 0; i < ORGANIZATION_ENTRIES; i++) {
+			response.add(entry(ORGANIZATION_ID));
+		}
+		for (long eventId = 1; eventId <= eventCount; eventId++) {
+			eventIds.add(eventId);
+			for (int i = 0; i < ENTRIES_PER_EVENT; i++) {
+				response.add(entry(eventId));
+			}
+		}
+	}
+
+	@Benchmark
+	public Map<Long, List<UserIdAndPermissionList>> filterPerEvent() {
+		Map<Long, List<UserIdAndPermissionList>> permissionsByEventId = new HashMap<>();
+		for (Long eventId : eventIds) {
+			permissionsByEventId.put(eventId,
+					response.stream().filter(permission -> permission.getEventId().equals(eventId)
+							|| permission.getEventId().equals(ORGANIZATION_ID)).toList());
+		}
+		return permissionsByEventId;
+	}
+
+	@Benchmark
+	public Map<Long, List<UserIdAndPermissionList>> groupOnce() {
+		return EventServiceImpl.groupPermissionsByEventId(response, eventIds, ORGANIZATION_ID);
+	}
+
+	private static UserIdAndPermissionList entry(Long eventId) {
+		UserIdAndPermissionList entry = new UserIdAndPermissionList();
+		entry.setEventId(eventId);
+		return entry;
+	}
+}
@@ -0,0 +1,123 @@
+package com.xperexpo.organizationservice.utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.xperexpo.organizationservice.payload.ZoneDateTime;
+
+/**
+ * Converts a list of event times the way {@code EventConverter} does for a
+ * list response: the former per call formatter and zone lookup against the
+ * cached conversions of {@link TimeUtils} and its batch variants. Reports
+ * ops/sec; run with {@code -prof gc} for the bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}), divided by {@code size} per conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeUtilsBenchmark {
+
+	private static final String ZONE = "Europe/Istanbul";
+	private static final String YYYY_MM_DD_HH_MM_SS = "yyyy-MM-dd HH:mm:ss";
+	private static final String YYYY_MM_DD_HH_MM = "yyyy-MM-dd HH:mm";
+	private static final DateTimeFormatter INPUT_FORMATTER = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM);
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private List<LocalDateTime> times;
+
+	private List<String> inputs;
+
+	@Setup
+	public void setUp() {
+		times = new ArrayList<>(size);
+		inputs = new ArrayList<>(size);
+		LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+		for (int i = 0; i < size; i++) {
+			LocalDateTime time = start.plusHours(i * 7L);
+			times.add(time);
+			inputs.add(time.format(INPUT_FORMATTER));
+		}
+	}
+
+	@Benchmark
+	public List<LocalDateTime> dateTimeZonePerCallLookup() {
+		List<LocalDateTime> converted = new ArrayList<>(size);
+		for (LocalDateTime time : times) {
+			converted.add(time.atZone(ZoneId.of("UTC")).withZoneSameInstant(ZoneId.of(ZONE)).toLocalDateTime());
+		}
+		return converted;
+	}
+
+	@Benchmark
+	public List<LocalDateTime> dateTimeZoneCached() {
+		List<LocalDateTime> converted = new ArrayList<>(size);
+		for (LocalDateTime time : times) {
+			converted.add(TimeUtils.getDateTimeZone(time, ZONE));
+		}
+		return converted;
+	}
+
+	@Benchmark
+	public List<LocalDateTime> dateTimeZoneBatch() {
+		return TimeUtils.getDateTimeZone(times, ZONE);
+	}
+
+	@Benchmark
+	public List<ZoneDateTime> gmtFormatterPerCallLookup() {
+		List<ZoneDateTime> converted = new ArrayList<>(size);
+		for (LocalDateTime time : times) {
+			DateTimeFormatter formatter = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM_SS);
+			ZonedDateTime atZone = time.atZone(TimeZone.getTimeZone(ZONE).toZoneId());
+			converted.add(new ZoneDateTime(time.format(formatter), atZone.getOffset().toString()));
+		}
+		return converted;
+	}
+
+	@Benchmark
+	public List<ZoneDateTime> gmtFormatterBatch() {
+		return TimeUtils.getGMTFormatter(times, ZONE);
+	}
+
+	@Benchmark
+	public List<LocalDateTime> parseDateTimePerCallLookup() {
+		List<LocalDateTime> parsed = new ArrayList<>(size);
+		for (String input : inputs) {
+			DateTimeFormatter formatter = DateTimeFormatter.ofPattern(YYYY_MM_DD_HH_MM);
+			parsed.add(LocalDateTime.parse(input, formatter).atZone(ZoneId.of(ZONE))
+					.withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime());
+		}
+		return parsed;
+	}
+
+	@Benchmark
+	public List<LocalDateTime> parseDateTimeCached() {
+		List<LocalDateTime> parsed = new ArrayList<>(size);
+		for (String input : inputs) {
+			parsed.add(TimeUtils.parseDateTime(input, ZONE));
+		}
+		return parsed;
+	}
+}